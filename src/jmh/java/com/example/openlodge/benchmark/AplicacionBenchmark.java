@@ -0,0 +1,79 @@
+package com.example.openlodge.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.openlodge.OpenlodgeApplication;
+
+/**
+ * Levanta la aplicación completa contra un H2 en memoria, para que los
+ * benchmarks midan los beans reales sin depender de MySQL.
+ */
+final class AplicacionBenchmark {
+
+    private AplicacionBenchmark() {
+    }
+
+    /**
+     * Inicia el contexto de Spring (sin servidor web) con una base H2 propia (una por benchmark)
+     */
+    static ConfigurableApplicationContext iniciar(String nombreBaseDeDatos, String... propiedadesExtra) {
+        return iniciar(WebApplicationType.NONE, nombreBaseDeDatos, propiedadesExtra);
+    }
+
+    /**
+     * Igual que iniciar(), pero con Tomcat escuchando en un puerto libre
+     * (se obtiene con puerto(contexto)), para pruebas de carga por HTTP
+     */
+    static ConfigurableApplicationContext iniciarConServidor(String nombreBaseDeDatos, String... propiedadesExtra) {
+        String[] conPuerto = new String[propiedadesExtra.length + 1];
+        System.arraycopy(propiedadesExtra, 0, conPuerto, 0, propiedadesExtra.length);
+        conPuerto[propiedadesExtra.length] = "--server.port=0";
+        return iniciar(WebApplicationType.SERVLET, nombreBaseDeDatos, conPuerto);
+    }
+
+    /**
+     * Puerto en el que quedó escuchando una aplicación iniciada con iniciarConServidor()
+     */
+    static int puerto(ConfigurableApplicationContext contexto) {
+        return ((WebServerApplicationContext) contexto).getWebServer().getPort();
+    }
+
+    private static ConfigurableApplicationContext iniciar(WebApplicationType tipo, String nombreBaseDeDatos,
+            String... propiedadesExtra) {
+        SpringApplication app = new SpringApplication(OpenlodgeApplication.class);
+        app.setWebApplicationType(tipo);
+
+        String[] argumentos = new String[] {
+                "--spring.datasource.url=jdbc:h2:mem:" + nombreBaseDeDatos + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--spring.jpa.show-sql=false",
+                // Las pruebas de carga le pegan desde una sola IP: sin limitador
+                "--limites.habilitado=false",
+                "--logging.level.root=WARN"
+        };
+        // Las propiedades extra reemplazan a las de arriba con la misma clave
+        List<String> todos = new ArrayList<>();
+        for (String argumento : argumentos) {
+            if (Arrays.stream(propiedadesExtra).noneMatch(extra -> clave(extra).equals(clave(argumento)))) {
+                todos.add(argumento);
+            }
+        }
+        todos.addAll(Arrays.asList(propiedadesExtra));
+        return app.run(todos.toArray(String[]::new));
+    }
+
+    private static String clave(String argumento) {
+        int igual = argumento.indexOf('=');
+        return igual < 0 ? argumento : argumento.substring(0, igual);
+    }
+}
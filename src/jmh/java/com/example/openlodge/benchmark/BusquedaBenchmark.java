@@ -0,0 +1,89 @@
+package com.example.openlodge.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.openlodge.dto.SugerenciaPropiedadDTO;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.IndiceBusqueda;
+
+/**
+ * Autocompletado (GET /api/propiedades/sugerencias) sobre el índice en memoria con
+ * 10.000 propiedades. El objetivo es responder en menos de 10 ms incluso en el peor
+ * caso: una sola letra que coincide con todas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusquedaBenchmark {
+
+    private static final int PROPIEDADES = 10_000;
+    private static final int LIMITE = 10;
+
+    private ConfigurableApplicationContext contexto;
+    private IndiceBusqueda indiceBusqueda;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = AplicacionBenchmark.iniciar("bench_busqueda");
+        indiceBusqueda = contexto.getBean(IndiceBusqueda.class);
+
+        Usuario anfitrion = DatosBenchmark.crearUsuario(contexto.getBean(UsuarioRepository.class), "ANFITRION", "x");
+        List<Propiedad> propiedades = new ArrayList<>();
+        for (int i = 0; i < PROPIEDADES; i++) {
+            propiedades.add(DatosBenchmark.nuevaPropiedad(anfitrion, i));
+        }
+        contexto.getBean(PropiedadRepository.class).saveAll(propiedades);
+        indiceBusqueda.cargar();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    /**
+     * Peor caso: "c" coincide con todas las propiedades ("Cabaña N")
+     */
+    @Benchmark
+    public List<SugerenciaPropiedadDTO> unaLetra() {
+        return indiceBusqueda.buscar("c", LIMITE);
+    }
+
+    /**
+     * Un prefijo común más un número que filtra a unas pocas
+     */
+    @Benchmark
+    public List<SugerenciaPropiedadDTO> variasPalabras() {
+        return indiceBusqueda.buscar("cabaña bariloche 471", LIMITE);
+    }
+
+    /**
+     * Una palabra que sólo tiene una propiedad
+     */
+    @Benchmark
+    public List<SugerenciaPropiedadDTO> selectiva() {
+        return indiceBusqueda.buscar("4711", LIMITE);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.openlodge.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.User;
+
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.JwtService;
+
+/**
+ * Prueba de carga por HTTP: hilos de plataforma contra hilos virtuales.
+ *
+ * Levanta la aplicación con Tomcat y le pega con muchos clientes a la vez a
+ * POST /api/reservas y GET /api/propiedades. Mide throughput y la distribución
+ * de latencias (SampleTime da p50/p99/p99.9 en el resultado de JMH).
+ *
+ * El modo "virtual" sólo tiene efecto corriendo en Java 21 o superior:
+ *   ./mvnw -Pbenchmark,java21 test-compile exec:exec -Djmh.filtro=CargaHttpBenchmark
+ * En Java 17 ambos modos usan hilos de plataforma (se avisa al iniciar).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+@Fork(1)
+public class CargaHttpBenchmark {
+
+    private static final int PROPIEDADES = 200;
+
+    @Param({ "plataforma", "virtual" })
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private String base;
+    private String autorizacion;
+    private List<Long> propiedadIds;
+    // Cada reserva usa una combinación (propiedad, noche) distinta: no hay conflictos
+    private final AtomicLong siguienteReserva = new AtomicLong();
+    private LocalDate primeraNoche;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(modo) && Runtime.version().feature() < 21) {
+            System.err.println("AVISO: los hilos virtuales requieren Java 21; este modo corre con hilos de plataforma.");
+        }
+        contexto = AplicacionBenchmark.iniciarConServidor("bench_carga_" + modo,
+                "--spring.profiles.active=" + modo);
+        base = "http://localhost:" + AplicacionBenchmark.puerto(contexto);
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        PropiedadRepository propiedadRepository = contexto.getBean(PropiedadRepository.class);
+        Usuario anfitrion = DatosBenchmark.crearUsuario(usuarioRepository, "ANFITRION", "x");
+        Usuario huesped = DatosBenchmark.crearUsuario(usuarioRepository, "HUESPED", "x");
+
+        propiedadIds = new ArrayList<>();
+        for (int i = 0; i < PROPIEDADES; i++) {
+            Propiedad propiedad = DatosBenchmark.crearPropiedad(propiedadRepository, anfitrion, i);
+            propiedadIds.add(propiedad.getId());
+        }
+        primeraNoche = LocalDate.now().plusDays(1);
+
+        // Token del huésped firmado directamente (no queremos medir el login)
+        String token = contexto.getBean(JwtService.class).generateToken(
+                User.withUsername(huesped.getEmail()).password("x").authorities("HUESPED").build());
+        autorizacion = "Bearer " + token;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int crearReserva() throws Exception {
+        long numero = siguienteReserva.getAndIncrement();
+        Long propiedadId = propiedadIds.get((int) (numero % PROPIEDADES));
+        LocalDate inicio = primeraNoche.plusDays(numero / PROPIEDADES);
+        String cuerpo = String.format(
+                "{\"propiedadId\":%d,\"fechaInicio\":\"%s\",\"fechaFin\":\"%s\",\"precioTotal\":100.0}",
+                propiedadId, inicio, inicio.plusDays(1));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/reservas"))
+                .header("Authorization", autorizacion)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        return verificar(cliente.send(request, HttpResponse.BodyHandlers.discarding()), 201);
+    }
+
+    @Benchmark
+    public int listarPropiedades() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/propiedades?limite=20")).GET().build();
+        return verificar(cliente.send(request, HttpResponse.BodyHandlers.discarding()), 200);
+    }
+
+    // Un error invalidaría la medición: cortamos la corrida
+    private static int verificar(HttpResponse<?> respuesta, int esperado) {
+        if (respuesta.statusCode() != esperado) {
+            throw new IllegalStateException("Respuesta inesperada: " + respuesta.statusCode());
+        }
+        return respuesta.statusCode();
+    }
+}
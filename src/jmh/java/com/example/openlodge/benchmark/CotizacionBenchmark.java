@@ -0,0 +1,97 @@
+package com.example.openlodge.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.openlodge.dto.CandidatoCotizacion;
+import com.example.openlodge.dto.CotizacionDTO;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Servicio;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ServicioRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.MotorPrecios;
+
+/**
+ * Cotización masiva (POST /api/propiedades/cotizaciones): 500 candidatos sobre
+ * 100 propiedades, con las tablas de tarifas ya en memoria y cargándolas de cero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CotizacionBenchmark {
+
+    private static final int PROPIEDADES = 100;
+    private static final int CANDIDATOS = 500;
+
+    private ConfigurableApplicationContext contexto;
+    private MotorPrecios motorPrecios;
+    private List<CandidatoCotizacion> candidatos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = AplicacionBenchmark.iniciar("bench_cotizaciones");
+        motorPrecios = contexto.getBean(MotorPrecios.class);
+
+        List<Servicio> servicios = contexto.getBean(ServicioRepository.class).findAll();
+        Usuario anfitrion = DatosBenchmark.crearUsuario(contexto.getBean(UsuarioRepository.class), "ANFITRION", "x");
+        List<Propiedad> propiedades = new ArrayList<>();
+        for (int i = 0; i < PROPIEDADES; i++) {
+            Propiedad propiedad = DatosBenchmark.nuevaPropiedad(anfitrion, i);
+            propiedad.getServicios().addAll(servicios);
+            propiedades.add(propiedad);
+        }
+        propiedades = contexto.getBean(PropiedadRepository.class).saveAll(propiedades);
+
+        // Cada propiedad en 5 rangos de fechas distintos, con todos sus servicios
+        LocalDate hoy = LocalDate.now();
+        candidatos = new ArrayList<>();
+        for (int i = 0; i < CANDIDATOS; i++) {
+            CandidatoCotizacion candidato = new CandidatoCotizacion();
+            candidato.setPropiedadId(propiedades.get(i % PROPIEDADES).getId());
+            candidato.setFechaInicio(hoy.plusDays(i % 30));
+            candidato.setFechaFin(hoy.plusDays(i % 30 + 1 + i % 7));
+            candidato.setServicioIds(servicios.stream().map(Servicio::getId).toList());
+            candidatos.add(candidato);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<CotizacionDTO> conTarifasEnMemoria() {
+        return motorPrecios.cotizarVarios(candidatos);
+    }
+
+    /**
+     * Peor caso: ninguna tabla en memoria (se cargan las 100 en dos consultas)
+     */
+    @Benchmark
+    public List<CotizacionDTO> cargandoTarifas() {
+        motorPrecios.getTarifas().invalidateAll();
+        return motorPrecios.cotizarVarios(candidatos);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.openlodge.benchmark;
+
+import java.util.UUID;
+
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Ayudantes para cargar datos de prueba en los benchmarks
+ */
+final class DatosBenchmark {
+
+    private DatosBenchmark() {
+    }
+
+    static Usuario crearUsuario(UsuarioRepository usuarioRepository, String rol, String passwordHasheada) {
+        String email = rol.toLowerCase() + "-" + UUID.randomUUID() + "@bench.com";
+        return usuarioRepository.save(new Usuario(null, "Bench", rol, email, passwordHasheada, rol));
+    }
+
+    static Propiedad nuevaPropiedad(Usuario anfitrion, int numero) {
+        Propiedad propiedad = new Propiedad();
+        propiedad.setTitulo("Cabaña " + numero);
+        propiedad.setDescripcion("Cabaña de montaña con vista al lago, ideal para familias. ".repeat(8));
+        propiedad.setDireccion("Av. Siempre Viva " + numero + ", Bariloche");
+        propiedad.setPrecioPorNoche(25000.0 + numero);
+        propiedad.setNumeroHuespedes(2 + numero % 6);
+        propiedad.setImagenPrincipalUrl("/img/propiedades/" + numero + "/IMG1.jpg");
+        propiedad.setAnfitrion(anfitrion);
+        return propiedad;
+    }
+
+    static Propiedad crearPropiedad(PropiedadRepository propiedadRepository, Usuario anfitrion, int numero) {
+        return propiedadRepository.save(nuevaPropiedad(anfitrion, numero));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.openlodge.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.openlodge.dto.PropiedadImportada;
+import com.example.openlodge.dto.ReservaImportada;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Servicio;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ServicioRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.ImportacionService;
+
+/**
+ * Importación masiva: filas por segundo (el resultado sale en filas/ms).
+ *
+ * - esquema: H2 "puro" o H2 en modo MySQL (el mismo dialecto de SQL que producción)
+ * - ids: "identity" (cada INSERT sale solo, para conocer el ID) o "bloques"
+ *   (perfil ids-por-bloques: los INSERT salen en lotes JDBC de 50)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportacionBenchmark {
+
+    private static final int FILAS = 500;
+
+    @Param({ "h2", "mysql" })
+    public String esquema;
+
+    @Param({ "identity", "bloques" })
+    public String ids;
+
+    private ConfigurableApplicationContext contexto;
+    private ImportacionService importacionService;
+    private List<PropiedadImportada> propiedades;
+    private List<ReservaImportada> reservas;
+    private int tanda;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String nombre = "bench_importacion_" + esquema + "_" + ids;
+        String modo = "mysql".equals(esquema) ? ";MODE=MySQL" : "";
+        contexto = AplicacionBenchmark.iniciar(nombre,
+                "--spring.datasource.url=jdbc:h2:mem:" + nombre + modo + ";DB_CLOSE_DELAY=-1",
+                "--spring.profiles.active=" + ("bloques".equals(ids) ? "ids-por-bloques" : "default"));
+        importacionService = contexto.getBean(ImportacionService.class);
+
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        Usuario anfitrion = DatosBenchmark.crearUsuario(usuarioRepository, "ANFITRION", "x");
+        List<Long> servicioIds = contexto.getBean(ServicioRepository.class).findAll().stream()
+                .map(Servicio::getId)
+                .toList();
+
+        propiedades = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            Propiedad modelo = DatosBenchmark.nuevaPropiedad(anfitrion, i);
+            propiedades.add(new PropiedadImportada(modelo.getTitulo(), modelo.getDescripcion(), modelo.getDireccion(),
+                    modelo.getPrecioPorNoche(), modelo.getNumeroHuespedes(), modelo.getImagenPrincipalUrl(),
+                    anfitrion.getId(), List.of(servicioIds.get(i % servicioIds.size()))));
+        }
+
+        // Las reservas van sobre una propiedad existente; cada tanda usa fechas nuevas
+        Usuario huesped = DatosBenchmark.crearUsuario(usuarioRepository, "HUESPED", "x");
+        Propiedad destino = DatosBenchmark.crearPropiedad(contexto.getBean(PropiedadRepository.class), anfitrion, 0);
+        reservas = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            reservas.add(new ReservaImportada(destino.getId(), huesped.getId(), null, null, 100.0, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public int importarPropiedades() {
+        return importacionService.importarPropiedades(propiedades);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public int importarReservas() {
+        LocalDate base = LocalDate.of(2030, 1, 1).plusDays((long) FILAS * tanda++);
+        for (int i = 0; i < FILAS; i++) {
+            ReservaImportada reserva = reservas.get(i);
+            reserva.setFechaInicio(base.plusDays(i));
+            reserva.setFechaFin(base.plusDays(i + 1));
+        }
+        return importacionService.importarReservas(reservas);
+    }
+}
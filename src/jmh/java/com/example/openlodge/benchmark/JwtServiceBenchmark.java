@@ -0,0 +1,102 @@
+package com.example.openlodge.benchmark;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.openlodge.service.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Generación y verificación de tokens JWT.
+ *
+ * Los métodos "...ComoAntes" reproducen lo que hacía JwtService antes de
+ * precalcular la clave y el parser (clave y parser nuevos en cada llamada,
+ * y tres parseos por petición en el filtro), para comparar en la misma corrida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "MiClaveSecretaMuyLargaParaQueNadiePuedaAdivinarlaOpenLodge2025";
+    static final long EXPIRATION = 3600000;
+
+    private JwtService jwtService;
+    private UserDetails usuario;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, EXPIRATION);
+        usuario = User.withUsername("bench@openlodge.com").password("x").authorities("HUESPED").build();
+        token = jwtService.generateToken(usuario);
+    }
+
+    // --- Ahora ---
+
+    @Benchmark
+    public String generar() {
+        return jwtService.generateToken(usuario);
+    }
+
+    @Benchmark
+    public Claims verificar() {
+        return jwtService.validarToken(token);
+    }
+
+    // --- Antes ---
+
+    @Benchmark
+    public String generarComoAntes() {
+        return Jwts.builder()
+                .claims(new HashMap<>())
+                .subject(usuario.getUsername())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(claveComoAntes())
+                .compact();
+    }
+
+    @Benchmark
+    public boolean verificarComoAntes() {
+        // extractUsername + isTokenValid (subject + expiración) = 3 parseos
+        String username = parsearComoAntes(token).getSubject();
+        boolean mismoUsuario = parsearComoAntes(token).getSubject().equals(username);
+        return mismoUsuario && !parsearComoAntes(token).getExpiration().before(new Date());
+    }
+
+    private static Claims parsearComoAntes(String token) {
+        return Jwts.parser()
+                .verifyWith(claveComoAntes())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static SecretKey claveComoAntes() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.openlodge.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.openlodge.controller.AuthController;
+import com.example.openlodge.dto.AuthResponse;
+import com.example.openlodge.dto.LoginRequest;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Costo de un login completo (AuthController.login): BCrypt + generación del token,
+ * con distintos costos de BCrypt (seguridad.contrasenias.costo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "contraseña-de-prueba";
+
+    @Param({ "10", "12" })
+    public int costo;
+
+    private ConfigurableApplicationContext contexto;
+    private AuthController authController;
+    private PasswordEncoder passwordEncoder;
+    private LoginRequest loginRequest;
+    private String passwordHasheada;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = AplicacionBenchmark.iniciar("bench_login_" + costo,
+                "--seguridad.contrasenias.costo=" + costo);
+        authController = contexto.getBean(AuthController.class);
+        passwordEncoder = contexto.getBean(PasswordEncoder.class);
+
+        passwordHasheada = passwordEncoder.encode(PASSWORD);
+        String email = DatosBenchmark.crearUsuario(
+                contexto.getBean(UsuarioRepository.class), "HUESPED", passwordHasheada).getEmail();
+        loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<AuthResponse> login() {
+        return authController.login(loginRequest);
+    }
+
+    /**
+     * Sólo la verificación BCrypt, para separar su costo del resto del login
+     */
+    @Benchmark
+    public boolean bcryptMatches() {
+        return passwordEncoder.matches(PASSWORD, passwordHasheada);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.openlodge.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Servicio;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ServicioRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.PropiedadService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Listado público de propiedades: lectura de una página (con sus servicios)
+ * y serialización a JSON, como lo hace GET /api/propiedades.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropiedadSerializacionBenchmark {
+
+    private static final int PROPIEDADES = 500;
+    private static final int TAMANIO_PAGINA = 100;
+
+    private ConfigurableApplicationContext contexto;
+    private PropiedadService propiedadService;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = AplicacionBenchmark.iniciar("bench_propiedades");
+        propiedadService = contexto.getBean(PropiedadService.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        PropiedadRepository propiedadRepository = contexto.getBean(PropiedadRepository.class);
+        List<Servicio> servicios = contexto.getBean(ServicioRepository.class).findAll();
+
+        Usuario anfitrion = DatosBenchmark.crearUsuario(usuarioRepository, "ANFITRION", "x");
+        List<Propiedad> propiedades = new ArrayList<>();
+        for (int i = 0; i < PROPIEDADES; i++) {
+            Propiedad propiedad = DatosBenchmark.nuevaPropiedad(anfitrion, i);
+            // Cada propiedad con 3 servicios del catálogo
+            for (int j = 0; j < 3; j++) {
+                propiedad.getServicios().add(servicios.get((i + j) % servicios.size()));
+            }
+            propiedades.add(propiedad);
+        }
+        propiedadRepository.saveAll(propiedades);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    /**
+     * Primera página del catálogo serializada a JSON.
+     * El servicio ya devuelve DTOs completos: no hace falta una transacción abierta
+     * durante la serialización.
+     */
+    @Benchmark
+    public byte[] paginaSerializada() throws Exception {
+        return objectMapper.writeValueAsBytes(propiedadService.obtenerTodasLasPropiedades(null, TAMANIO_PAGINA));
+    }
+
+    /**
+     * La misma página en la vista resumen (GET /api/propiedades?vista=resumen)
+     */
+    @Benchmark
+    public byte[] paginaResumenSerializada() throws Exception {
+        return objectMapper.writeValueAsBytes(propiedadService.obtenerResumenes(null, TAMANIO_PAGINA));
+    }
+
+    /**
+     * La página tal como la sirve el controlador: desde la caché de bytes ya serializados
+     */
+    @Benchmark
+    public byte[] paginaCacheada() {
+        return propiedadService.obtenerPaginaCacheada(null, TAMANIO_PAGINA, false).getRespuesta().getCuerpo();
+    }
+}
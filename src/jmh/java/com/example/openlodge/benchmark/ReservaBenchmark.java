@@ -0,0 +1,186 @@
+package com.example.openlodge.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ReservaRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.CoordinadorReservas;
+import com.example.openlodge.service.IndiceDisponibilidad;
+import com.example.openlodge.service.ReservaService;
+
+/**
+ * Camino caliente de las reservas: chequeo de superposición y crearReserva.
+ * La propiedad tiene un historial de reservas futuras para que la consulta
+ * de superposición tenga algo que recorrer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservaBenchmark {
+
+    private static final int RESERVAS_EXISTENTES = 1000;
+
+    private ConfigurableApplicationContext contexto;
+    private IndiceDisponibilidad indiceDisponibilidad;
+    private ReservaRepository reservaRepository;
+    private CoordinadorReservas coordinadorReservas;
+    private ReservaService reservaService;
+
+    private PropiedadRepository propiedadRepository;
+    private Usuario anfitrion;
+    private Usuario huesped;
+    private Propiedad propiedad;
+    private LocalDate base;
+    private ReservaRequest requestOcupado;
+    private ReservaRequest requestLibre;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = AplicacionBenchmark.iniciar("bench_reservas");
+        indiceDisponibilidad = contexto.getBean(IndiceDisponibilidad.class);
+        reservaRepository = contexto.getBean(ReservaRepository.class);
+        coordinadorReservas = contexto.getBean(CoordinadorReservas.class);
+        reservaService = contexto.getBean(ReservaService.class);
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        propiedadRepository = contexto.getBean(PropiedadRepository.class);
+
+        anfitrion = DatosBenchmark.crearUsuario(usuarioRepository, "ANFITRION", "x");
+        huesped = DatosBenchmark.crearUsuario(usuarioRepository, "HUESPED", "x");
+        propiedad = DatosBenchmark.crearPropiedad(propiedadRepository, anfitrion, 1);
+
+        // Reservas de 2 noches, una cada 3 días (queda 1 noche libre entre cada una)
+        base = LocalDate.now().plusDays(1);
+        List<Reserva> historial = new ArrayList<>();
+        for (int i = 0; i < RESERVAS_EXISTENTES; i++) {
+            LocalDate inicio = base.plusDays(i * 3L);
+            historial.add(new Reserva(null, inicio, inicio.plusDays(2), 50000.0, null, propiedad, huesped, null));
+        }
+        reservaRepository.saveAll(historial);
+
+        LocalDate medio = base.plusDays(RESERVAS_EXISTENTES / 2 * 3L);
+        requestOcupado = request(medio, medio.plusDays(2));
+        LocalDate despues = base.plusDays(RESERVAS_EXISTENTES * 3L + 10);
+        requestLibre = request(despues, despues.plusDays(2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public boolean superposicionEnIndice() {
+        return indiceDisponibilidad.haySuperposicion(
+                propiedad.getId(), requestOcupado.getFechaInicio(), requestOcupado.getFechaFin());
+    }
+
+    @Benchmark
+    public boolean superposicionEnBaseDeDatos() {
+        return reservaRepository.existsOverlappingReserva(
+                propiedad.getId(), requestOcupado.getFechaInicio(), requestOcupado.getFechaFin());
+    }
+
+    /**
+     * crearReserva con fechas ocupadas: el camino del 409
+     */
+    @Benchmark
+    public boolean crearReservaConConflicto() {
+        try {
+            coordinadorReservas.crearReserva(requestOcupado, huesped.getEmail());
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * crearReserva exitosa (y la cancelamos para que los datos no crezcan)
+     */
+    @Benchmark
+    public Long crearYCancelarReserva() {
+        return crearYCancelar(requestLibre);
+    }
+
+    /**
+     * Una propiedad por hilo, para medir cuánto escala crearReserva cuando los
+     * hilos no compiten por la misma propiedad (cada una tiene su propio candado)
+     */
+    @State(Scope.Thread)
+    public static class PropiedadDelHilo {
+        private static final AtomicInteger NUMERO = new AtomicInteger(1000);
+
+        private ReservaRequest requestLibre;
+
+        @Setup(Level.Trial)
+        public void setUp(ReservaBenchmark benchmark) {
+            Propiedad propia = DatosBenchmark.crearPropiedad(
+                    benchmark.propiedadRepository, benchmark.anfitrion, NUMERO.incrementAndGet());
+            requestLibre = benchmark.request(propia, benchmark.base, benchmark.base.plusDays(2));
+        }
+    }
+
+    /**
+     * crearReserva exitosa, cada hilo en su propiedad: con 1 hilo...
+     */
+    @Benchmark
+    @Threads(1)
+    public Long propiedadesDistintasUnHilo(PropiedadDelHilo propia) {
+        return crearYCancelar(propia.requestLibre);
+    }
+
+    /**
+     * ... y con 16. Si los candados por propiedad no se estorban, el throughput
+     * total de este caso debería ser varias veces el del caso con 1 hilo.
+     */
+    @Benchmark
+    @Threads(16)
+    public Long propiedadesDistintasDieciseisHilos(PropiedadDelHilo propia) {
+        return crearYCancelar(propia.requestLibre);
+    }
+
+    private Long crearYCancelar(ReservaRequest request) {
+        Reserva reserva = coordinadorReservas.crearReserva(request, huesped.getEmail());
+        reservaService.cancelarReserva(reserva.getId(), anfitrion.getEmail());
+        return reserva.getId();
+    }
+
+    private ReservaRequest request(LocalDate inicio, LocalDate fin) {
+        return request(propiedad, inicio, fin);
+    }
+
+    private ReservaRequest request(Propiedad propiedad, LocalDate inicio, LocalDate fin) {
+        ReservaRequest request = new ReservaRequest();
+        request.setPropiedadId(propiedad.getId());
+        request.setFechaInicio(inicio);
+        request.setFechaFin(fin);
+        request.setPrecioTotal(50000.0);
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.openlodge.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Deja la tabla 'secuencias' por delante de los IDs que ya existen
+ * (sólo en el modo de IDs por bloques, perfil "ids-por-bloques").
+ *
+ * Fuera de ese modo las filas se insertan con IDENTITY (AUTO_INCREMENT), así que
+ * la base puede tener IDs más altos que el próximo bloque de la tabla de
+ * secuencias. Al arrancar, y ANTES que cualquier otro runner (como DataLoader),
+ * subimos cada fila a MAX(id) si hace falta (Hibernate guarda en 'siguiente'
+ * el último ID que entregó, y el próximo bloque empieza en ese valor + 1).
+ */
+@Component
+@Profile("ids-por-bloques")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AlineadorSecuencias implements ApplicationRunner {
+
+    // Cada fila de 'secuencias' se llama igual que la tabla de su entidad
+    private static final List<String> TABLAS = List.of("usuarios", "servicios", "propiedades", "reservas");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AlineadorSecuencias(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        for (String tabla : TABLAS) {
+            // 1. El último ID usado según los datos que ya hay
+            Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Long.class);
+
+            // 2. Subimos la fila si quedó atrás (nunca la bajamos)
+            int actualizadas = jdbcTemplate.update(
+                    "UPDATE secuencias SET siguiente = ? WHERE entidad = ? AND siguiente < ?",
+                    maximo, tabla, maximo);
+
+            // 3. Si la fila todavía no existe, la creamos
+            if (actualizadas == 0) {
+                Integer existe = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM secuencias WHERE entidad = ?", Integer.class, tabla);
+                if (existe == 0) {
+                    jdbcTemplate.update("INSERT INTO secuencias (entidad, siguiente) VALUES (?, ?)", tabla, maximo);
+                }
+            }
+        }
+    }
+}
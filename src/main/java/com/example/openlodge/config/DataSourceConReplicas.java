@@ -0,0 +1,202 @@
+package com.example.openlodge.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * DataSource de la aplicación en el modo réplicas (perfil "replicas", ver ReplicasConfig).
+ *
+ * Es un LazyConnectionDataSourceProxy sobre un AbstractRoutingDataSource: la
+ * conexión real se pide recién con la primera sentencia, cuando Spring ya marcó
+ * si la transacción actual es de sólo lectura, y ahí se elige a dónde va:
+ * - Transacción readOnly -> una réplica disponible (rotando entre ellas).
+ * - Todo lo demás (escrituras, transacciones normales, Flyway) -> la primaria.
+ *
+ * Retraso de replicación: cada 'intervalo' escribimos la hora en la tabla
+ * latido_replicacion de la primaria y la leemos en cada réplica. Una réplica que
+ * quedó más de 'retrasoMaximo' atrás (o que no responde) deja de recibir lecturas
+ * hasta ponerse al día; si no queda ninguna, las lecturas van a la primaria.
+ *
+ * Quien necesita lo último confirmado aunque esté en una transacción readOnly
+ * (por ejemplo, para volver a llenar una caché recién invalidada) usa enPrimaria(...).
+ */
+public class DataSourceConReplicas extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    private static final String PRIMARIA = "primaria";
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIA = ThreadLocal.withInitial(() -> false);
+
+    private final HikariDataSource primaria;
+    private final JdbcTemplate jdbcPrimaria;
+    private final List<Replica> replicas;
+    private final long retrasoMaximoMs;
+    private final AtomicInteger turno = new AtomicInteger();
+    private final Counter lecturasEnPrimaria;
+    private final ScheduledExecutorService monitor;
+
+    // Último latido que se escribió en la primaria (epoch en ms)
+    private volatile long ultimoLatido;
+
+    public DataSourceConReplicas(HikariDataSource primaria, List<HikariDataSource> replicas,
+            Duration retrasoMaximo, Duration intervalo, MeterRegistry meterRegistry) {
+        this.primaria = primaria;
+        this.jdbcPrimaria = new JdbcTemplate(primaria);
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.retrasoMaximoMs = retrasoMaximo.toMillis();
+
+        // 1. El ruteo entre la primaria y las réplicas, detrás del proxy "perezoso"
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        for (Replica replica : this.replicas) {
+            destinos.put(replica.nombre, replica.pool);
+        }
+        Ruteo ruteo = new Ruteo();
+        ruteo.setTargetDataSources(destinos);
+        ruteo.setDefaultTargetDataSource(primaria);
+        ruteo.afterPropertiesSet();
+        setTargetDataSource(ruteo);
+        afterPropertiesSet();
+
+        // 2. Métricas (las de cada pool las publica Hikari: hikaricp.connections.*{pool=...})
+        this.lecturasEnPrimaria = Counter.builder("replicas.lecturas.en.primaria")
+                .description("Transacciones de sólo lectura que fueron a la primaria por no haber réplicas al día")
+                .register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("replicas.retraso", replica, r -> r.retrasoMs / 1000.0)
+                    .description("Retraso de replicación medido con el latido (-1 si la réplica no responde)")
+                    .tag("replica", replica.nombre)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("replicas.disponible", replica, r -> r.disponible ? 1 : 0)
+                    .description("1 si la réplica recibe lecturas, 0 si está atrasada o caída")
+                    .tag("replica", replica.nombre)
+                    .register(meterRegistry);
+        }
+
+        // 3. Latido y medición del retraso, en un hilo propio
+        this.monitor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "monitor-replicas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        monitor.scheduleWithFixedDelay(this::chequear, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Corre 'lectura' contra la primaria aunque esté dentro de una transacción readOnly
+     * (mientras no haya usado ya una conexión). Fuera del modo réplicas no cambia nada.
+     */
+    public static <T> T enPrimaria(Supplier<T> lectura) {
+        boolean anterior = FORZAR_PRIMARIA.get();
+        FORZAR_PRIMARIA.set(true);
+        try {
+            return lectura.get();
+        } finally {
+            FORZAR_PRIMARIA.set(anterior);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        monitor.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+        primaria.close();
+    }
+
+    // --- Métodos Privados ---
+
+    private void chequear() {
+        // 1. Latido en la primaria (si falla, medimos contra el último que se pudo escribir)
+        long ahora = System.currentTimeMillis();
+        try {
+            jdbcPrimaria.update("UPDATE latido_replicacion SET instante_ms = ? WHERE id = 1", ahora);
+            ultimoLatido = ahora;
+        } catch (DataAccessException e) {
+            // La primaria no respondió: las réplicas se siguen midiendo igual
+        }
+        if (ultimoLatido == 0) {
+            // Todavía no se pudo escribir ningún latido: no hay contra qué medir
+            return;
+        }
+
+        // 2. Cuánto quedó atrás cada réplica
+        for (Replica replica : replicas) {
+            replica.medir(ultimoLatido, retrasoMaximoMs);
+        }
+    }
+
+    // A dónde va la conexión que se está pidiendo: las transacciones readOnly van a
+    // la siguiente réplica disponible en la rotación; todo lo demás, a la primaria
+    private String elegir() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || FORZAR_PRIMARIA.get()) {
+            return PRIMARIA;
+        }
+        int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (replica.disponible) {
+                return replica.nombre;
+            }
+        }
+        lecturasEnPrimaria.increment();
+        return PRIMARIA;
+    }
+
+    private final class Ruteo extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return elegir();
+        }
+    }
+
+    /**
+     * Una réplica con su pool y el resultado del último chequeo.
+     * Arranca NO disponible: recibe lecturas recién cuando un chequeo la ve al día.
+     */
+    private static final class Replica {
+        private final String nombre;
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbc;
+        private volatile boolean disponible;
+        private volatile long retrasoMs = -1;
+
+        Replica(HikariDataSource pool) {
+            this.nombre = pool.getPoolName();
+            this.pool = pool;
+            this.jdbc = new JdbcTemplate(pool);
+        }
+
+        void medir(long ultimoLatido, long retrasoMaximoMs) {
+            try {
+                Long visto = jdbc.queryForObject("SELECT instante_ms FROM latido_replicacion WHERE id = 1", Long.class);
+                // Negativo si otra instancia escribió un latido más nuevo que el nuestro: está al día
+                retrasoMs = Math.max(0, ultimoLatido - (visto == null ? 0 : visto));
+                disponible = retrasoMs <= retrasoMaximoMs;
+            } catch (DataAccessException e) {
+                retrasoMs = -1;
+                disponible = false;
+            }
+        }
+    }
+}
@@ -11,8 +11,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.example.openlodge.service.JwtService;
+import com.example.openlodge.service.TokenCacheService;
 import com.example.openlodge.service.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
 import io.micrometer.common.lang.NonNull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,11 +25,14 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenCacheService tokenCacheService;
 
     @Autowired
-    public JwtAuthFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService,
+            TokenCacheService tokenCacheService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenCacheService = tokenCacheService;
     }
 
     /**
@@ -51,10 +56,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         // 3. Extraemos el token (quitando "Bearer")
         final String token = authHeader.substring(7);
-        final String userEmail;
 
+        // Si el usuario ya está "logueado" en esta petición, no hay nada que hacer
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 4. ¿Ya validamos este token antes? Entonces no parseamos ni vamos a la BD
+        TokenCacheService.TokenValidado validado = tokenCacheService.obtener(token);
+        if (validado != null) {
+            autenticar(validado.getUserDetails(), request);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 5. Validamos el token (firma y expiración) con un solo parseo
+        final Claims claims;
         try {
-            userEmail = jwtService.extractUsername(token);
+            claims = jwtService.validarToken(token);
         } catch (Exception e) {
             // Si el token es inválido (expirado, malformado), lo dejamos pasar
             // y Spring lo bloqueará por ser "Anónimo"
@@ -62,30 +82,32 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        // 4. Si tenemos email Y el usuario no está "logueado" en esta petición
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            
-            // 5. cargamos el usuario desde la BD
+        // 6. Si tenemos email, cargamos el usuario desde la BD
+        final String userEmail = claims.getSubject();
+        if (userEmail != null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-            // 6. validamos el token
-            if (jwtService.isTokenValid(token, userDetails)) {
-                
-                // Creamos la "sesión" de autenticación
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null, // No necesitamos credenciales (contraseña)
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                // Guardamos la autenticación en el Contexto de Seguridad
-                // Esto es lo que le dice a Spring que el usuario está logueado
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (userEmail.equals(userDetails.getUsername())) {
+                autenticar(userDetails, request);
+
+                // Lo guardamos en la caché hasta que venza el token
+                tokenCacheService.guardar(token, userDetails, claims.getExpiration());
             }
         }
         
         // 7. Pasamos al siguiente filtro en la cadena
         filterChain.doFilter(request, response);
     }
+
+    // Crea la "sesión" de autenticación y la guarda en el Contexto de Seguridad.
+    // Esto es lo que le dice a Spring que el usuario está logueado
+    private void autenticar(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null, // No necesitamos credenciales (contraseña)
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
@@ -0,0 +1,243 @@
+package com.example.openlodge.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.openlodge.service.TokenCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.common.lang.NonNull;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limitador de peticiones: corre ANTES de JwtAuthFilter, así lo que se
+ * rechaza no llega a validar tokens, hashear contraseñas ni tocar la BD.
+ *
+ * 1. Cuota por cliente y por ruta (token bucket): cada cliente tiene un "balde"
+ *    por grupo de rutas (login, registro, lecturas públicas, resto de la API).
+ *    El cliente es el usuario si su token ya fue validado antes (está en
+ *    TokenCacheService), o si no la IP. Sin cuota -> 429 con Retry-After.
+ * 2. Concurrencia global: como mucho 'concurrencia-maxima' peticiones a la vez
+ *    dentro de la API. Si no hay lugar -> 503 enseguida, en vez de encolarlas.
+ *
+ * Los baldes no usan candados: cada uno es un solo AtomicLong con la "hora
+ * teórica de llegada" (GCRA, equivalente a un token bucket) que se actualiza
+ * con compareAndSet. Viven en una caché Caffeine acotada; un balde que se
+ * descarta por inactividad ya estaba lleno, así que no se pierde nada.
+ *
+ * La IP es request.getRemoteAddr(): detrás de un proxy hay que configurar
+ * server.forward-headers-strategy para que sea la del cliente real.
+ */
+@Component
+public class LimitadorPeticionesFilter extends OncePerRequestFilter {
+
+    private final TokenCacheService tokenCacheService;
+    private final boolean habilitado;
+    private final int concurrenciaMaxima;
+    private final Semaphore enCurso;
+    private final List<Cuota> cuotas;
+    private final Cache<String, Balde> baldes;
+    private final Counter rechazosConcurrencia;
+
+    @Autowired
+    public LimitadorPeticionesFilter(TokenCacheService tokenCacheService, MeterRegistry meterRegistry,
+            @Value("${limites.habilitado:true}") boolean habilitado,
+            @Value("${limites.concurrencia-maxima:200}") int concurrenciaMaxima,
+            @Value("${limites.login.por-minuto:10}") int loginPorMinuto,
+            @Value("${limites.login.rafaga:5}") int loginRafaga,
+            @Value("${limites.registro.por-minuto:5}") int registroPorMinuto,
+            @Value("${limites.registro.rafaga:3}") int registroRafaga,
+            @Value("${limites.lecturas.por-minuto:600}") int lecturasPorMinuto,
+            @Value("${limites.lecturas.rafaga:100}") int lecturasRafaga,
+            @Value("${limites.general.por-minuto:300}") int generalPorMinuto,
+            @Value("${limites.general.rafaga:60}") int generalRafaga,
+            @Value("${limites.clientes.max-entradas:100000}") long maxClientes) {
+        this.tokenCacheService = tokenCacheService;
+        this.habilitado = habilitado;
+        this.concurrenciaMaxima = concurrenciaMaxima;
+        this.enCurso = new Semaphore(concurrenciaMaxima);
+
+        // Se usa la primera cuota que coincide con la petición (la última, "general", coincide siempre)
+        this.cuotas = List.of(
+                new Cuota("login", "POST", List.of("/api/auth/login"), loginPorMinuto, loginRafaga, meterRegistry),
+                new Cuota("registro", "POST", List.of("/api/usuarios"), registroPorMinuto, registroRafaga, meterRegistry),
+                new Cuota("lecturas", "GET", List.of("/api/propiedades", "/api/servicios"),
+                        lecturasPorMinuto, lecturasRafaga, meterRegistry),
+                new Cuota("general", null, List.of("/api/"), generalPorMinuto, generalRafaga, meterRegistry));
+
+        this.baldes = Caffeine.newBuilder()
+                .maximumSize(maxClientes)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+
+        this.rechazosConcurrencia = Counter.builder("limitador.rechazos")
+                .description("Peticiones rechazadas por el limitador")
+                .tag("motivo", "concurrencia")
+                .tag("ruta", "todas")
+                .register(meterRegistry);
+        Gauge.builder("limitador.en.curso", enCurso, s -> concurrenciaMaxima - s.availablePermits())
+                .description("Peticiones a la API en curso (límite: limites.concurrencia-maxima)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sólo limitamos la API; Actuator, la consola de H2 y los preflight de CORS pasan siempre
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !habilitado
+                || !request.getRequestURI().startsWith("/api/")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        // 1. Cuota del cliente para este grupo de rutas
+        Cuota cuota = cuotaDe(request);
+        String clave = cuota.nombre + "|" + cliente(request);
+        long esperaNanos = baldes.get(clave, k -> new Balde()).tomar(System.nanoTime(), cuota);
+        if (esperaNanos > 0) {
+            cuota.rechazos.increment();
+            rechazar(response, HttpStatus.TOO_MANY_REQUESTS, segundosParaReintentar(esperaNanos),
+                    "Demasiadas peticiones; reintentar más tarde.");
+            return;
+        }
+
+        // 2. Lugar en la API (sin esperar)
+        if (!enCurso.tryAcquire()) {
+            rechazosConcurrencia.increment();
+            rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "El servidor está saturado; reintentar en unos segundos.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            enCurso.release();
+        }
+    }
+
+    // --- Métodos Privados ---
+
+    private Cuota cuotaDe(HttpServletRequest request) {
+        for (Cuota cuota : cuotas) {
+            if (cuota.coincide(request.getMethod(), request.getRequestURI())) {
+                return cuota;
+            }
+        }
+        // No pasa: la cuota "general" coincide con todo /api/
+        return cuotas.get(cuotas.size() - 1);
+    }
+
+    // El usuario si su token ya se validó antes; si no, la IP (un token sin validar podría ser falso)
+    private String cliente(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String email = tokenCacheService.usuarioDelToken(authHeader.substring(7));
+            if (email != null) {
+                return "usuario:" + email;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long segundosParaReintentar(long esperaNanos) {
+        return Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void rechazar(HttpServletResponse response, HttpStatus estado, long segundos, String mensaje)
+            throws IOException {
+        response.setStatus(estado.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensaje);
+    }
+
+    /**
+     * Un grupo de rutas con su cuota: 'porMinuto' peticiones sostenidas
+     * y hasta 'rafaga' seguidas con el balde lleno
+     */
+    private static final class Cuota {
+        private final String nombre;
+        private final String metodo;
+        private final List<String> prefijos;
+        private final long intervaloNanos;
+        private final long toleranciaNanos;
+        private final Counter rechazos;
+
+        Cuota(String nombre, String metodo, List<String> prefijos, int porMinuto, int rafaga,
+                MeterRegistry meterRegistry) {
+            this.nombre = nombre;
+            this.metodo = metodo;
+            this.prefijos = prefijos;
+            this.intervaloNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, porMinuto);
+            this.toleranciaNanos = intervaloNanos * Math.max(1, rafaga);
+            this.rechazos = Counter.builder("limitador.rechazos")
+                    .description("Peticiones rechazadas por el limitador")
+                    .tag("motivo", "cuota")
+                    .tag("ruta", nombre)
+                    .register(meterRegistry);
+        }
+
+        boolean coincide(String metodoPedido, String ruta) {
+            if (metodo != null && !metodo.equals(metodoPedido)) {
+                return false;
+            }
+            for (String prefijo : prefijos) {
+                if (ruta.startsWith(prefijo)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Token bucket de un cliente, guardado como la hora teórica en la que "llegaría"
+     * la próxima petición si todas llegaran a ritmo constante (GCRA).
+     * Con el balde lleno esa hora es 'ahora'; cada petición la corre un intervalo,
+     * y si queda más de 'rafaga' intervalos en el futuro, se rechaza.
+     */
+    private static final class Balde {
+        private final AtomicLong llegadaTeorica = new AtomicLong(System.nanoTime());
+
+        // Devuelve 0 si la petición entra, o cuántos nanosegundos faltan para que entre
+        long tomar(long ahora, Cuota cuota) {
+            while (true) {
+                long actual = llegadaTeorica.get();
+                long nueva = Math.max(actual, ahora) + cuota.intervaloNanos;
+                long exceso = nueva - ahora - cuota.toleranciaNanos;
+                if (exceso > 0) {
+                    return exceso;
+                }
+                if (llegadaTeorica.compareAndSet(actual, nueva)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.openlodge.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.example.openlodge.service.ResumenOcupacion;
+
+/**
+ * Mantenimiento del resumen de ocupación (tabla ocupacion_diaria) al arrancar:
+ *
+ * - ocupacion.reconstruir=true: la recalcula entera desde 'reservas' (para arreglarla).
+ *   También se recalcula sin pedirlo si está vacía y ya hay reservas: es la primera vez
+ *   que arranca después de crear la tabla, y si no el tablero del anfitrión daría todo en cero.
+ * - ocupacion.verificar=true: la compara con 'reservas' e informa qué propiedades no coinciden.
+ *
+ * Por ejemplo: java -jar openlodge.jar --ocupacion.reconstruir=true
+ */
+@Component
+public class MantenimientoOcupacion implements ApplicationRunner {
+    private final ResumenOcupacion resumenOcupacion;
+    private final boolean reconstruir;
+    private final boolean verificar;
+
+    @Autowired
+    public MantenimientoOcupacion(ResumenOcupacion resumenOcupacion,
+            @Value("${ocupacion.reconstruir:false}") boolean reconstruir,
+            @Value("${ocupacion.verificar:false}") boolean verificar) {
+        this.resumenOcupacion = resumenOcupacion;
+        this.reconstruir = reconstruir;
+        this.verificar = verificar;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // 1. Reconstrucción (antes de verificar, si se piden las dos)
+        if (reconstruir || resumenOcupacion.faltaCargar()) {
+            System.out.println("Reconstruyendo el resumen de ocupación...");
+            int propiedades = resumenOcupacion.reconstruir();
+            System.out.println("Resumen de ocupación reconstruido para " + propiedades + " propiedades.");
+        }
+
+        // 2. Verificación
+        if (verificar) {
+            List<Long> distintas = resumenOcupacion.verificar();
+            if (distintas.isEmpty()) {
+                System.out.println("El resumen de ocupación coincide con las reservas.");
+            } else {
+                System.out.println("El resumen de ocupación NO coincide con las reservas de las propiedades "
+                        + distintas + " (corregirlo con ocupacion.reconstruir=true).");
+            }
+        }
+    }
+}
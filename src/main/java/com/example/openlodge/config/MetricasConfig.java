@@ -0,0 +1,99 @@
+package com.example.openlodge.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.openlodge.service.CacheLecturasService;
+import com.example.openlodge.service.IndiceBusqueda;
+import com.example.openlodge.service.IndiceDisponibilidad;
+import com.example.openlodge.service.MotorPrecios;
+import com.example.openlodge.service.TokenCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Métricas propias que Actuator no registra solo.
+ *
+ * Los tiempos por endpoint (http.server.requests) y por método de repositorio
+ * (spring.data.repository.invocations) ya los mide Spring Boot automáticamente;
+ * acá sumamos las cachés, los índices en memoria y las tarifas.
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Caché de tokens JWT: aciertos/fallos/expulsiones y tasa de aciertos
+     */
+    @Bean
+    public MeterBinder metricasCacheTokens(TokenCacheService tokenCacheService) {
+        return registry -> registrarCacheCaffeine(registry, tokenCacheService.getCache(), "tokensJwt");
+    }
+
+    /**
+     * Cachés de lectura: catálogo de servicios y detalle de propiedades
+     */
+    @Bean
+    public MeterBinder metricasCacheLecturas(CacheLecturasService cacheLecturas) {
+        return registry -> {
+            registrarCacheCaffeine(registry, cacheLecturas.getServicios(), "catalogoServicios");
+            registrarCacheCaffeine(registry, cacheLecturas.getPropiedades(), "detallePropiedades");
+            registrarCacheCaffeine(registry, cacheLecturas.getPaginas(), "paginasPropiedades");
+        };
+    }
+
+    /**
+     * Tablas de tarifas del motor de precios
+     */
+    @Bean
+    public MeterBinder metricasMotorPrecios(MotorPrecios motorPrecios) {
+        return registry -> registrarCacheCaffeine(registry, motorPrecios.getTarifas(), "tarifasPropiedades");
+    }
+
+    /**
+     * Índice de disponibilidad: propiedades en memoria, tasa de aciertos y caché de meses
+     */
+    @Bean
+    public MeterBinder metricasIndiceDisponibilidad(IndiceDisponibilidad indiceDisponibilidad) {
+        return registry -> {
+            Gauge.builder("disponibilidad.indice.propiedades", indiceDisponibilidad, IndiceDisponibilidad::cantidadPropiedades)
+                    .description("Propiedades con su calendario cargado en memoria")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", indiceDisponibilidad, IndiceDisponibilidad::tasaDeAciertos)
+                    .description("Proporción de consultas resueltas sin ir a la BD")
+                    .tag("cache", "indiceDisponibilidad")
+                    .register(registry);
+            registrarCacheCaffeine(registry, indiceDisponibilidad.getMeses(), "disponibilidadMeses");
+        };
+    }
+
+    /**
+     * Índice de búsqueda: propiedades y términos en memoria, y si ya terminó de cargarse
+     */
+    @Bean
+    public MeterBinder metricasIndiceBusqueda(IndiceBusqueda indiceBusqueda) {
+        return registry -> {
+            Gauge.builder("busqueda.indice.propiedades", indiceBusqueda, IndiceBusqueda::cantidadPropiedades)
+                    .description("Propiedades en el índice de búsqueda")
+                    .register(registry);
+            Gauge.builder("busqueda.indice.terminos", indiceBusqueda, IndiceBusqueda::cantidadTerminos)
+                    .description("Términos distintos en el índice de búsqueda")
+                    .register(registry);
+            Gauge.builder("busqueda.indice.listo", indiceBusqueda, indice -> indice.estaListo() ? 1 : 0)
+                    .description("1 cuando el índice ya se cargó desde la BD (antes, las sugerencias van a la BD)")
+                    .register(registry);
+        };
+    }
+
+    // Registra las métricas estándar de una caché Caffeine más un gauge con su tasa de aciertos
+    static void registrarCacheCaffeine(MeterRegistry registry, Cache<?, ?> cache, String nombre) {
+        CaffeineCacheMetrics.monitor(registry, cache, nombre);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Proporción de lecturas que encontraron el valor en la caché")
+                .tag("cache", nombre)
+                .register(registry);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.openlodge.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Modo réplicas de lectura (perfil "replicas", ver application-replicas.properties).
+ *
+ * Arma un pool de Hikari para la primaria (spring.datasource.*) y uno por cada
+ * réplica (replicas.urls), todos con la configuración de spring.datasource.hikari.*,
+ * y los junta en DataSourceConReplicas, que reemplaza al DataSource de Spring Boot.
+ * Cada pool publica sus métricas con su nombre: pool=primaria, replica-1, replica-2...
+ */
+@Configuration
+@Profile("replicas")
+public class ReplicasConfig {
+
+    @Bean
+    @Primary
+    public DataSourceConReplicas dataSource(DataSourceProperties propiedades, Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${replicas.urls}") List<String> urls,
+            @Value("${replicas.username:${spring.datasource.username:}}") String usuario,
+            @Value("${replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${replicas.retraso-maximo:5s}") Duration retrasoMaximo,
+            @Value("${replicas.intervalo-chequeo:2s}") Duration intervalo) {
+
+        // 1. La primaria, como la armaría Spring Boot
+        HikariDataSource primaria = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurarPool(primaria, "primaria", environment, meterRegistry);
+
+        // 2. Las réplicas: mismo driver y misma configuración de pool, conexiones de sólo lectura
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(usuario);
+            replica.setPassword(password);
+            replica.setDriverClassName(propiedades.determineDriverClassName());
+            configurarPool(replica, "replica-" + (replicas.size() + 1), environment, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("El perfil 'replicas' necesita al menos una URL en replicas.urls.");
+        }
+
+        return new DataSourceConReplicas(primaria, replicas, retrasoMaximo, intervalo, meterRegistry);
+    }
+
+    // Aplica spring.datasource.hikari.*, el nombre del pool y sus métricas (antes de que el pool arranque)
+    private static void configurarPool(HikariDataSource pool, String nombre, Environment environment,
+            MeterRegistry meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(nombre);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
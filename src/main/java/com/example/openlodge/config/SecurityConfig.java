@@ -1,17 +1,22 @@
 package com.example.openlodge.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -24,20 +29,21 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthFilter jwtAuthFilter;
+    private final LimitadorPeticionesFilter limitadorPeticionesFilter;
+    // El "Encriptador" de contraseñas: BCrypt, con su propio pool acotado (CodificadorContrasenias)
+    private final PasswordEncoder passwordEncoder;
+    // Actuator en su propio puerto (management.server.port), que sólo escucha en 127.0.0.1
+    private final boolean actuatorEnOtroPuerto;
 
     @Autowired
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService, JwtAuthFilter jwtAuthFilter) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService, JwtAuthFilter jwtAuthFilter,
+            LimitadorPeticionesFilter limitadorPeticionesFilter, PasswordEncoder passwordEncoder,
+            Environment environment) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthFilter = jwtAuthFilter;
-    }
-
-    /**
-     * Creamos el "Encriptador" de contraseñas.
-     * Usamos BCrypt, que es el estándar de la industria.
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        this.limitadorPeticionesFilter = limitadorPeticionesFilter;
+        this.passwordEncoder = passwordEncoder;
+        this.actuatorEnOtroPuerto = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
     }
 
     /**
@@ -52,12 +58,15 @@ public class SecurityConfig {
      * Este es el "Proveedor" de Autenticación
      * Le dice a Spring que use nuestro UserDetailsServiceImpl (para encontrar al
      * usuario)
-     * y nuestro PasswordEncoder (para comparar las contraseñas)
+     * y nuestro PasswordEncoder (para comparar las contraseñas).
+     * Si la contraseña es correcta pero su hash quedó con un costo viejo,
+     * lo recalcula y lo guarda (UserDetailsServiceImpl.updatePassword)
      */
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(passwordEncoder());
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(passwordEncoder);
         authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -84,6 +93,9 @@ public class SecurityConfig {
                 // ANTES del filtro normal de usuario y contraseña"
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
 
+                // Y ANTES de todo eso, el limitador de peticiones (429/503 sin gastar CPU ni BD)
+                .addFilterBefore(limitadorPeticionesFilter, JwtAuthFilter.class)
+
                 // 3. Definimos las reglas de autorización (quién puede ver qué)
                 .authorizeHttpRequests(authz -> authz
 
@@ -92,20 +104,29 @@ public class SecurityConfig {
                         // RUTAS PÚBLICAS (INCLUYENDO /LOGIN)
                         .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/usuarios").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/propiedades", "/api/propiedades/{id}").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/propiedades", "/api/propiedades/stream", "/api/propiedades/buscar", "/api/propiedades/sugerencias", "/api/propiedades/{id}", "/api/propiedades/{id}/disponibilidad").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/propiedades/cotizaciones").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/servicios").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/livez", "/readyz").permitAll()
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        // El resto de Actuator (métricas, Prometheus): libre sólo en su puerto local.
+                        // Si alguien lo vuelve a poner en el puerto de la API, pide autenticación
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).access(actuatorEnOtroPuerto
+                                ? (autenticacion, contexto) -> new AuthorizationDecision(true)
+                                : AuthenticatedAuthorizationManager.authenticated())
 
                         // RUTAS POR ROL
                         .requestMatchers(HttpMethod.POST, "/api/propiedades", "/api/propiedades/**").hasAuthority("ANFITRION")
                         .requestMatchers(HttpMethod.PUT, "/api/propiedades/**").hasAuthority("ANFITRION")
                         .requestMatchers(HttpMethod.DELETE, "/api/propiedades/**").hasAuthority("ANFITRION")
 
-                        .requestMatchers(HttpMethod.POST, "/api/reservas").hasAuthority("HUESPED")
+                        .requestMatchers(HttpMethod.POST, "/api/reservas", "/api/reservas/lote", "/api/reservas/solicitudes").hasAuthority("HUESPED")
+                        .requestMatchers(HttpMethod.GET, "/api/reservas/solicitudes/**").hasAuthority("HUESPED")
                         .requestMatchers(HttpMethod.GET, "/api/reservas/mis-reservas").hasAuthority("HUESPED")
                         .requestMatchers(HttpMethod.DELETE, "/api/reservas/mis-reservas/**").hasAuthority("HUESPED")
 
-                        .requestMatchers(HttpMethod.GET, "/api/reservas/de-mis-propiedades").hasAuthority("ANFITRION")
+                        .requestMatchers(HttpMethod.GET, "/api/reservas/de-mis-propiedades", "/api/reservas/de-mis-propiedades/**").hasAuthority("ANFITRION")
                         .requestMatchers(HttpMethod.DELETE, "/api/reservas/**").hasAuthority("ANFITRION")
 
                         // Todo lo demás (el resto de endpoints) requiere autenticación
@@ -1,11 +1,17 @@
 package com.example.openlodge.controller;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,7 +22,6 @@ import com.example.openlodge.dto.LoginRequest;
 import com.example.openlodge.model.Usuario;
 import com.example.openlodge.repository.UsuarioRepository;
 import com.example.openlodge.service.JwtService;
-import com.example.openlodge.service.UserDetailsServiceImpl;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -25,17 +30,14 @@ import jakarta.persistence.EntityNotFoundException;
 @CrossOrigin(origins = "*")
 public class AuthController {
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsServiceImpl userDetailsService;
     private final JwtService jwtService;
     private final UsuarioRepository usuarioRepository;
 
     @Autowired
     public AuthController(AuthenticationManager authenticationManager, 
-                          UserDetailsServiceImpl userDetailsService, 
                           JwtService jwtService,
                           UsuarioRepository usuarioRepository) {
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
         this.jwtService = jwtService;
         this.usuarioRepository = usuarioRepository;
     }
@@ -51,16 +53,16 @@ public class AuthController {
         // Esto usa el AuthenticationManager que configuramos en SecurityConfig
         // Internamente, llama a UserDetailsServiceImpl y PasswordEncoder
         // Si el email o la contraseña son incorrectos, lanza una excepción
-        authenticationManager.authenticate(
+        // (y si hay demasiados logins a la vez, RejectedExecutionException -> 503)
+        Authentication autenticacion = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getEmail(), 
                         loginRequest.getPassword()
                 )
         );
 
-        // 2. Si la autenticación fue exitosa, cargamos los detalles del usuario
-        final UserDetails userDetails = userDetailsService
-                .loadUserByUsername(loginRequest.getEmail());
+        // 2. Si la autenticación fue exitosa, ya tenemos los detalles del usuario
+        final UserDetails userDetails = (UserDetails) autenticacion.getPrincipal();
 
         // 3. Generamos el token JWT
         final String token = jwtService.generateToken(userDetails);
@@ -77,4 +79,17 @@ public class AuthController {
             usuario.getEmail()
         ));
     }
+
+    // ---  MANEJADORES DE EXCEPCIONES  ---
+
+    /**
+     * El pool de hashes de contraseñas está saturado (ráfaga de logins):
+     * 503 con Retry-After para que el cliente reintente más tarde
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleSaturado(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
 }
@@ -2,10 +2,16 @@ package com.example.openlodge.controller;
 
 // 1. ¡IMPORT CORREGIDO! Esta es la excepción de Spring Security
 import org.springframework.security.access.AccessDeniedException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,49 +19,189 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 // 2. ¡NUEVO IMPORT! Esta es la excepción de "No Encontrado"
 import jakarta.persistence.EntityNotFoundException;
 
+import com.example.openlodge.dto.CotizacionDTO;
+import com.example.openlodge.dto.CotizacionesRequest;
+import com.example.openlodge.dto.DisponibilidadDTO;
+import com.example.openlodge.dto.FiltroBusqueda;
+import com.example.openlodge.dto.PropiedadDTO;
+import com.example.openlodge.dto.SugerenciaPropiedadDTO;
 import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.service.CacheLecturasService.PaginaCacheada;
+import com.example.openlodge.service.MotorPrecios;
 import com.example.openlodge.service.PropiedadService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 @RequestMapping("/api/propiedades")
 @CrossOrigin(origins = "*")
 public class PropiedadController {
 
+    // Header donde devolvemos el cursor para pedir la página siguiente
+    public static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+
+    // Vistas de los listados: "completa" (PropiedadDTO) o "resumen" (PropiedadResumenDTO)
+    private static final String VISTA_COMPLETA = "completa";
+    private static final String VISTA_RESUMEN = "resumen";
+
     private final PropiedadService propiedadService;
+    private final MotorPrecios motorPrecios;
+    private final ObjectMapper objectMapper;
 
-    public PropiedadController(PropiedadService propiedadService) {
+    @Autowired
+    public PropiedadController(PropiedadService propiedadService, MotorPrecios motorPrecios, ObjectMapper objectMapper) {
         this.propiedadService = propiedadService;
+        this.motorPrecios = motorPrecios;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Devuelve una página del catálogo (paginación por cursor).
+     * Si hay más resultados, el header X-Next-Cursor trae el valor para 'cursor'.
+     * Con vista=resumen devuelve sólo id, título, precio, capacidad, imagen e IDs de servicios.
+     * La página sale de la caché ya serializada; con If-None-Match responde 304 si no cambió.
+     *
+     * Se activa con: GET http://localhost:8080/api/propiedades?cursor=20&limite=20&vista=resumen
+     */
     @GetMapping
-    public List<Propiedad> obtenerTodasLasPropiedades() {
-        return propiedadService.obtenerTodasLasPropiedades();
+    public ResponseEntity<byte[]> obtenerTodasLasPropiedades(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limite,
+            @RequestParam(defaultValue = VISTA_COMPLETA) String vista,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        PaginaCacheada pagina = propiedadService.obtenerPaginaCacheada(cursor, limite, esResumen(vista));
+
+        HttpHeaders headers = new HttpHeaders();
+        if (pagina.getSiguienteCursor() != null) {
+            headers.set(HEADER_SIGUIENTE_CURSOR, String.valueOf(pagina.getSiguienteCursor()));
+        }
+        return pagina.getRespuesta().responder(ifNoneMatch, headers);
+    }
+
+    /**
+     * Busca propiedades disponibles con filtros de fechas, capacidad, precio y servicios.
+     * Pagina igual que el listado (cursor + header X-Next-Cursor).
+     *
+     * Se activa con: GET http://localhost:8080/api/propiedades/buscar?fechaInicio=2025-01-10&fechaFin=2025-01-15&huespedes=2
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<PropiedadDTO>> buscarPropiedades(
+            @ModelAttribute FiltroBusqueda filtro,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limite) {
+
+        List<PropiedadDTO> pagina = propiedadService.buscarPropiedades(filtro, cursor, limite);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.size() == PropiedadService.acotarLimite(limite)) {
+            respuesta.header(HEADER_SIGUIENTE_CURSOR, String.valueOf(pagina.get(pagina.size() - 1).getId()));
+        }
+        return respuesta.body(pagina);
+    }
+
+    /**
+     * Sugerencias para el buscador mientras se escribe (por título, descripción o dirección).
+     * Cada palabra se toma como prefijo y no importan las mayúsculas ni las tildes.
+     *
+     * Se activa con: GET http://localhost:8080/api/propiedades/sugerencias?q=caba%20pale&limite=10
+     */
+    @GetMapping("/sugerencias")
+    public List<SugerenciaPropiedadDTO> sugerirPropiedades(
+            @RequestParam(name = "q", required = false) String consulta,
+            @RequestParam(defaultValue = "10") int limite) {
+        return propiedadService.sugerirPropiedades(consulta, limite);
+    }
+
+    /**
+     * Cotiza muchas (propiedad, fechas, servicios) de una sola vez, con el mismo
+     * cálculo que se usa al reservar. Devuelve un resultado por candidato, en orden.
+     *
+     * Se activa con: POST http://localhost:8080/api/propiedades/cotizaciones
+     */
+    @PostMapping("/cotizaciones")
+    public List<CotizacionDTO> cotizar(@RequestBody CotizacionesRequest request) {
+        return motorPrecios.cotizarVarios(request.getCandidatos());
     }
 
+    /**
+     * Devuelve TODO el catálogo como un arreglo JSON que se va escribiendo
+     * a medida que se lee de la BD (la memoria no depende del tamaño del catálogo).
+     *
+     * Se activa con: GET http://localhost:8080/api/propiedades/stream
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamTodasLasPropiedades() {
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                generador.writeStartArray();
+                propiedadService.recorrerTodasLasPropiedades(propiedad -> {
+                    try {
+                        escritor.writeValue(generador, propiedad);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generador.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    /**
+     * Detalle de una propiedad. Sale de la caché ya serializado;
+     * con If-None-Match responde 304 si no cambió.
+     *
+     * Se activa con: GET http://localhost:8080/api/propiedades/1
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Propiedad> obtenerPropiedadPorId(@PathVariable Long id) {
-        return propiedadService.obtenerPropiedadPorId(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> obtenerPropiedadPorId(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return propiedadService.obtenerPropiedadCacheada(id)
+                .map(respuesta -> respuesta.responder(ifNoneMatch))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Noches ocupadas de una propiedad entre 'desde' (inclusive) y 'hasta' (exclusive),
+     * como mapa de bits en base64 y como rangos. Máximo un año por pedido.
+     *
+     * Se activa con: GET http://localhost:8080/api/propiedades/1/disponibilidad?desde=2025-01-01&hasta=2025-03-01
+     */
+    @GetMapping("/{id}/disponibilidad")
+    public DisponibilidadDTO obtenerDisponibilidad(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return propiedadService.obtenerDisponibilidad(id, desde, hasta);
+    }
+
     @GetMapping("/anfitrion/{anfitrionId}")
-    public List<Propiedad> obtenerPropiedadesPorAnfitrion(@PathVariable Long anfitrionId) {
+    public List<PropiedadDTO> obtenerPropiedadesPorAnfitrion(@PathVariable Long anfitrionId) {
         return propiedadService.obtenerPropiedadesPorAnfitrion(anfitrionId);
     }
 
     @PostMapping
-    public ResponseEntity<Propiedad> crearPropiedad(
+    public ResponseEntity<PropiedadDTO> crearPropiedad(
             @RequestBody Propiedad propiedad,
             @AuthenticationPrincipal UserDetails userDetails) {
 
@@ -63,18 +209,18 @@ public class PropiedadController {
         String emailAnfitrion = userDetails.getUsername();
 
         // 2. Llamamos al servicio actualizado
-        Propiedad nuevaPropiedad = propiedadService.crearPropiedad(propiedad, emailAnfitrion);
+        PropiedadDTO nuevaPropiedad = propiedadService.crearPropiedad(propiedad, emailAnfitrion);
 
         return new ResponseEntity<>(nuevaPropiedad, HttpStatus.CREATED);
     }
 
     @PostMapping("/{propiedadId}/servicios/{servicioId}")
-    public ResponseEntity<Propiedad> agregarServicioAPropiedad(
+    public ResponseEntity<PropiedadDTO> agregarServicioAPropiedad(
             @PathVariable Long propiedadId,
             @PathVariable Long servicioId,
             @AuthenticationPrincipal UserDetails userDetails) {
         String emailUsuarioLogueado = userDetails.getUsername();
-        Propiedad propiedadActualizada = propiedadService.agregarServicioAPropiedad(
+        PropiedadDTO propiedadActualizada = propiedadService.agregarServicioAPropiedad(
                 propiedadId,
                 servicioId,
                 emailUsuarioLogueado);
@@ -82,9 +228,13 @@ public class PropiedadController {
     }
 
     @GetMapping("/mis-propiedades")
-    public List<Propiedad> obtenerMisPropiedades(
-            @AuthenticationPrincipal UserDetails userDetails) {
+    public List<?> obtenerMisPropiedades(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = VISTA_COMPLETA) String vista) {
         String emailUsuarioLogueado = userDetails.getUsername();
+        if (esResumen(vista)) {
+            return propiedadService.obtenerResumenesPorEmailAnfitrion(emailUsuarioLogueado);
+        }
         return propiedadService.obtenerPropiedadesPorEmailAnfitrion(emailUsuarioLogueado);
     }
 
@@ -116,7 +266,7 @@ public class PropiedadController {
      * Se activa con: PUT http://localhost:8080/api/propiedades/1
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Propiedad> actualizarPropiedad(
+    public ResponseEntity<PropiedadDTO> actualizarPropiedad(
             @PathVariable Long id,
             @RequestBody Propiedad datosPropiedad,
             @AuthenticationPrincipal UserDetails userDetails) {
@@ -125,12 +275,23 @@ public class PropiedadController {
         String emailAnfitrion = userDetails.getUsername();
 
         // 2. Llamamos al servicio para que valide y actualice
-        Propiedad propiedadActualizada = propiedadService.actualizarPropiedad(id, datosPropiedad, emailAnfitrion);
+        PropiedadDTO propiedadActualizada = propiedadService.actualizarPropiedad(id, datosPropiedad, emailAnfitrion);
 
         // 3. Devolvemos un 200 OK con la propiedad actualizada
         return ResponseEntity.ok(propiedadActualizada);
     }
 
+    // Valida el parámetro 'vista' (una vista desconocida es un 400)
+    private static boolean esResumen(String vista) {
+        if (VISTA_RESUMEN.equals(vista)) {
+            return true;
+        }
+        if (VISTA_COMPLETA.equals(vista)) {
+            return false;
+        }
+        throw new IllegalArgumentException("La vista debe ser '" + VISTA_COMPLETA + "' o '" + VISTA_RESUMEN + "'.");
+    }
+
     // ---  MANEJADORES DE EXCEPCIONES  ---
 
     /**
@@ -150,6 +311,15 @@ public class PropiedadController {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Atrapa los errores de parámetros inválidos (400),
+     * por ejemplo un rango de fechas al revés en la búsqueda
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Atrapa el error si intentamos borrar/modificar algo
      * que tiene conflictos (ej: reservas activas)
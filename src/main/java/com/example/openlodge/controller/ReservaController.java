@@ -1,8 +1,14 @@
 package com.example.openlodge.controller;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -14,11 +20,24 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.example.openlodge.dto.LoteReservaRequest;
+import com.example.openlodge.dto.LoteReservaResponse;
+import com.example.openlodge.dto.ModoLote;
+import com.example.openlodge.dto.OcupacionMensualDTO;
+import com.example.openlodge.dto.ReservaDeAnfitrionDTO;
 import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.dto.ResumenAnfitrionDTO;
+import com.example.openlodge.dto.SolicitudReserva;
 import com.example.openlodge.model.Reserva;
+import com.example.openlodge.service.ColaReservas;
+import com.example.openlodge.service.CoordinadorReservas;
+import com.example.openlodge.service.PropiedadService;
 import com.example.openlodge.service.ReservaService;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -28,10 +47,15 @@ import jakarta.persistence.EntityNotFoundException;
 @CrossOrigin(origins = "*")
 public class ReservaController {
     private final ReservaService reservaService;
+    private final CoordinadorReservas coordinadorReservas;
+    private final ColaReservas colaReservas;
 
     @Autowired
-    public ReservaController(ReservaService reservaService) {
+    public ReservaController(ReservaService reservaService, CoordinadorReservas coordinadorReservas,
+            ColaReservas colaReservas) {
         this.reservaService = reservaService;
+        this.coordinadorReservas = coordinadorReservas;
+        this.colaReservas = colaReservas;
     }
 
     /**
@@ -48,13 +72,93 @@ public class ReservaController {
         // 1. Obtenemos el email del Huésped desde el token
         String emailHuesped = userDetails.getUsername();
 
-        // 2. Llamamos al servicio para crear la reserva
-        Reserva nuevaReserva = reservaService.crearReserva(request, emailHuesped);
+        // 2. Pasamos por el coordinador, que evita reservas dobles
+        //    cuando llegan peticiones simultáneas para la misma propiedad
+        Reserva nuevaReserva = coordinadorReservas.crearReserva(request, emailHuesped);
 
         // 3. Devolvemos 201 Created
         return new ResponseEntity<>(nuevaReserva, HttpStatus.CREATED);
     }
 
+    /**
+     * Endpoint para CREAR VARIAS reservas en una sola petición
+     * (p. ej. una agencia que reserva un bloque de propiedades).
+     * Cada reserva del lote trae su resultado en la respuesta.
+     *
+     * - 201 si se crearon todas
+     * - 200 si en MEJOR_ESFUERZO se crearon sólo algunas
+     * - 409 si no se creó ninguna
+     *
+     * Se activa con: POST http://localhost:8080/api/reservas/lote
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<LoteReservaResponse> crearReservasEnLote(
+            @RequestBody LoteReservaRequest lote,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        // 1. Obtenemos el email del Huésped desde el token
+        String emailHuesped = userDetails.getUsername();
+
+        // 2. El coordinador toma los candados de todas las propiedades del lote
+        LoteReservaResponse respuesta = coordinadorReservas.crearReservasEnLote(lote, emailHuesped);
+
+        // 3. Elegimos el código según cuántas se crearon
+        HttpStatus estado;
+        if (respuesta.getRechazadas() == 0) {
+            estado = HttpStatus.CREATED;
+        } else if (respuesta.getCreadas() > 0 && respuesta.getModo() == ModoLote.MEJOR_ESFUERZO) {
+            estado = HttpStatus.OK;
+        } else {
+            estado = HttpStatus.CONFLICT;
+        }
+        return new ResponseEntity<>(respuesta, estado);
+    }
+
+    /**
+     * Endpoint para PEDIR una reserva sin esperar a que se guarde (ventas relámpago).
+     * Requiere el header Idempotency-Key: si el cliente reintenta con la misma clave
+     * recibe la misma solicitud, no se crea otra.
+     *
+     * - 202 con Location: /api/reservas/solicitudes/{clave} para consultar el resultado
+     * - 409 si la clave ya se usó para otra reserva
+     * - 503 si hay demasiadas solicitudes en espera
+     *
+     * Se activa con: POST http://localhost:8080/api/reservas/solicitudes
+     */
+    @PostMapping("/solicitudes")
+    public ResponseEntity<SolicitudReserva> solicitarReserva(
+            @RequestHeader("Idempotency-Key") String clave,
+            @RequestBody ReservaRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        // 1. Obtenemos el email del Huésped desde el token
+        String emailHuesped = userDetails.getUsername();
+
+        // 2. La cola la anota en su diario y la procesa después, junto con otras de la misma propiedad
+        SolicitudReserva solicitud = colaReservas.aceptar(clave, request, emailHuesped);
+
+        // 3. Devolvemos 202 Accepted y dónde consultar cómo terminó
+        URI estado = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{clave}")
+                .buildAndExpand(solicitud.getClave())
+                .toUri();
+        return ResponseEntity.accepted().location(estado).body(solicitud);
+    }
+
+    /**
+     * En qué quedó una solicitud asincrónica del huésped logueado (PENDIENTE, CREADA, CONFLICTO...)
+     *
+     * Se activa con: GET http://localhost:8080/api/reservas/solicitudes/{clave}
+     */
+    @GetMapping("/solicitudes/{clave}")
+    public SolicitudReserva obtenerSolicitud(
+            @PathVariable String clave,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        String emailHuesped = userDetails.getUsername();
+        return colaReservas.obtener(clave, emailHuesped);
+    }
+
     /**
      * Obtiene el historial de reservas del huésped logueado
      *
@@ -70,6 +174,7 @@ public class ReservaController {
 
     /**
      * Obtiene todas las reservas hechas a las propiedades del anfitrión logueado
+     * (con muchas propiedades conviene /de-mis-propiedades/pagina, que pagina y no carga entidades)
      *
      * Se activa con: GET http://localhost:8080/api/reservas/de-mis-propiedades
      */
@@ -81,6 +186,64 @@ public class ReservaController {
         return reservaService.obtenerReservasDeMisPropiedades(emailAnfitrion);
     }
 
+    /**
+     * Reservas a las propiedades del anfitrión logueado que tocan [desde, hasta), paginadas
+     * por cursor (header X-Next-Cursor, igual que el listado de propiedades).
+     * Sin fechas: desde hoy y los próximos 90 días.
+     *
+     * Se activa con: GET http://localhost:8080/api/reservas/de-mis-propiedades/pagina?desde=2025-01-01&hasta=2025-02-01&limite=50
+     */
+    @GetMapping("/de-mis-propiedades/pagina")
+    public ResponseEntity<List<ReservaDeAnfitrionDTO>> obtenerPaginaDeMisPropiedades(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limite,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        String emailAnfitrion = userDetails.getUsername();
+        List<ReservaDeAnfitrionDTO> pagina = reservaService.obtenerReservasDeMisPropiedades(
+                emailAnfitrion, desde, hasta, cursor, limite);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.size() == PropiedadService.acotarLimite(limite)) {
+            respuesta.header(PropiedadController.HEADER_SIGUIENTE_CURSOR, String.valueOf(pagina.get(pagina.size() - 1).getId()));
+        }
+        return respuesta.body(pagina);
+    }
+
+    /**
+     * Tablero del anfitrión logueado: ocupación, ingresos y próximos check-ins de cada
+     * propiedad en [desde, hasta), más los totales. Sin fechas: desde hoy y los próximos 90 días.
+     *
+     * Se activa con: GET http://localhost:8080/api/reservas/de-mis-propiedades/resumen?desde=2025-01-01&hasta=2025-02-01
+     */
+    @GetMapping("/de-mis-propiedades/resumen")
+    public ResumenAnfitrionDTO obtenerResumenDeMisPropiedades(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        String emailAnfitrion = userDetails.getUsername();
+        return reservaService.obtenerResumenDeMisPropiedades(emailAnfitrion, desde, hasta);
+    }
+
+    /**
+     * Reporte mensual del anfitrión logueado: noches vendidas, llegadas e ingresos
+     * de cada propiedad, mes por mes (desde y hasta incluidos; sin meses, los últimos 12)
+     *
+     * Se activa con: GET http://localhost:8080/api/reservas/de-mis-propiedades/reporte-mensual?desde=2025-01&hasta=2025-12
+     */
+    @GetMapping("/de-mis-propiedades/reporte-mensual")
+    public List<OcupacionMensualDTO> obtenerReporteMensual(
+            @RequestParam(required = false) YearMonth desde,
+            @RequestParam(required = false) YearMonth hasta,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        String emailAnfitrion = userDetails.getUsername();
+        return reservaService.obtenerReporteMensual(emailAnfitrion, desde, hasta);
+    }
+
     /**
      * Endpoint para BORRAR (cancelar) una reserva
      *
@@ -124,6 +287,14 @@ public class ReservaController {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Atrapa los errores de datos inválidos (400), por ejemplo un lote vacío o demasiado grande
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Atrapa el error si las fechas se superponen (409)
      */
@@ -131,4 +302,14 @@ public class ReservaController {
     public ResponseEntity<String> handleConflict(IllegalStateException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
     }
+
+    /**
+     * La cola de reservas asincrónicas está llena: 503 con Retry-After
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleSaturado(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
 }
@@ -1,14 +1,14 @@
 package com.example.openlodge.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.openlodge.model.Servicio;
 import com.example.openlodge.service.ServicioService;
 
 @RestController
@@ -24,12 +24,14 @@ public class ServicioController {
 
     /**
      * Endpoint para OBTENER TODOS los servicios maestros.
+     * Sale de la caché ya serializado; con If-None-Match responde 304 si no cambió.
      *
      * Se activa con: GET http://localhost:8080/api/servicios
      */
     @GetMapping
-    public List<Servicio> obtenerTodosLosServicios() {
-        return servicioService.obtenerTodosLosServicios();
+    public ResponseEntity<byte[]> obtenerTodosLosServicios(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return servicioService.obtenerCatalogoServicios().responder(ifNoneMatch);
     }
 
 }
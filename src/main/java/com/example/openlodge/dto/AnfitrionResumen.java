@@ -0,0 +1,24 @@
+package com.example.openlodge.dto;
+
+import com.example.openlodge.model.Usuario;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos públicos del anfitrión que mostramos junto a una propiedad
+ * (nunca el email ni la contraseña)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnfitrionResumen {
+    private Long id;
+    private String nombre;
+    private String apellido;
+
+    public static AnfitrionResumen desde(Usuario anfitrion) {
+        return new AnfitrionResumen(anfitrion.getId(), anfitrion.getNombre(), anfitrion.getApellido());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Una (propiedad, rango de fechas) a cotizar, con los servicios que se quieren sumar
+ */
+@Data
+public class CandidatoCotizacion {
+    private Long propiedadId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private List<Long> servicioIds = new ArrayList<>();
+}
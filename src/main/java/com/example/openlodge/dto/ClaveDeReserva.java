@@ -0,0 +1,12 @@
+package com.example.openlodge.dto;
+
+/**
+ * Clave de idempotencia de una reserva con su huésped y su ID (proyección, sin cargar la entidad)
+ */
+public interface ClaveDeReserva {
+    Long getHuespedId();
+
+    String getClave();
+
+    Long getId();
+}
@@ -0,0 +1,36 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * El precio de un candidato (en el mismo orden en que se pidieron).
+ * Si no se pudo cotizar, 'estado' dice por qué y los importes quedan en null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CotizacionDTO {
+    private int indice;
+    private Long propiedadId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Estado estado;
+    private Integer noches;
+    private Double precioNoches;
+    private Double precioServicios;
+    private Double precioTotal;
+    private String mensaje;
+
+    public enum Estado {
+        // Tiene precio
+        COTIZADA,
+        // La propiedad no existe
+        NO_ENCONTRADA,
+        // Faltan datos, el rango de fechas no es válido o algún servicio no lo ofrece la propiedad
+        INVALIDA
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.openlodge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Varios candidatos a cotizar en una sola petición
+ * (por ejemplo, todos los resultados de una búsqueda para unas fechas)
+ */
+@Data
+public class CotizacionesRequest {
+    private List<CandidatoCotizacion> candidatos = new ArrayList<>();
+}
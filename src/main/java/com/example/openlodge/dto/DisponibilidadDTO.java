@@ -0,0 +1,35 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Noches ocupadas de una propiedad entre 'desde' (inclusive) y 'hasta' (exclusive).
+ *
+ * Viene en dos formatos compactos, según le convenga al frontend:
+ * - 'ocupadas': mapa de bits en base64. El bit i (bit i % 8 del byte i / 8)
+ *   vale 1 si la noche de 'desde + i días' está reservada.
+ * - 'rangos': las noches ocupadas agrupadas en rangos [inicio, fin) consecutivos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadDTO {
+    private Long propiedadId;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private String ocupadas;
+    private List<Rango> rangos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rango {
+        private LocalDate inicio;
+        private LocalDate fin;
+    }
+}
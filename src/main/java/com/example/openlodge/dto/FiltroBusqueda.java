@@ -0,0 +1,27 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * Filtros de la búsqueda de propiedades (todos opcionales).
+ * Llegan como parámetros de la URL, por ejemplo:
+ * ?fechaInicio=2025-01-10&fechaFin=2025-01-15&huespedes=4&precioMax=50000&servicios=1,3
+ */
+@Data
+public class FiltroBusqueda {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaInicio;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaFin;
+
+    private Integer huespedes; // Capacidad mínima
+    private Double precioMin;
+    private Double precioMax;
+    private List<Long> servicios; // IDs de servicios que la propiedad debe tener TODOS
+}
@@ -0,0 +1,16 @@
+package com.example.openlodge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Varias reservas del mismo huésped en una sola petición
+ * (por ejemplo, una agencia que reserva un bloque de propiedades)
+ */
+@Data
+public class LoteReservaRequest {
+    private ModoLote modo = ModoLote.TODO_O_NADA;
+    private List<ReservaRequest> reservas = new ArrayList<>();
+}
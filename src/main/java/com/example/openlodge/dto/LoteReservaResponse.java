@@ -0,0 +1,20 @@
+package com.example.openlodge.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un lote de reservas: totales y el detalle de cada una
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteReservaResponse {
+    private ModoLote modo;
+    private int creadas;
+    private int rechazadas;
+    private List<ResultadoReservaLote> resultados;
+}
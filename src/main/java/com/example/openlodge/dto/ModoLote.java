@@ -0,0 +1,11 @@
+package com.example.openlodge.dto;
+
+/**
+ * Cómo se procesa un lote de reservas
+ */
+public enum ModoLote {
+    // Si alguna reserva no se puede hacer, no se guarda ninguna
+    TODO_O_NADA,
+    // Se guardan las que se puedan; el resto se informa en el resultado
+    MEJOR_ESFUERZO
+}
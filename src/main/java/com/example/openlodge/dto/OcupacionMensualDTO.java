@@ -0,0 +1,21 @@
+package com.example.openlodge.dto;
+
+import java.time.YearMonth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una fila del reporte mensual del anfitrión: lo vendido por una propiedad en un mes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionMensualDTO {
+    private Long propiedadId;
+    private YearMonth mes;
+    private long nochesVendidas;
+    private long llegadas;
+    private double ingresos;
+}
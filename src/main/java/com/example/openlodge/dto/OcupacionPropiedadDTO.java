@@ -0,0 +1,29 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tablero del anfitrión: cómo le va a una propiedad en la ventana pedida
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionPropiedadDTO {
+    private Long propiedadId;
+    private String titulo;
+    // Reservas que tocan la ventana
+    private long reservas;
+    // Noches de esas reservas que caen dentro de la ventana
+    private long nochesOcupadas;
+    // nochesOcupadas / días de la ventana (0 a 1)
+    private double tasaOcupacion;
+    // Lo que se cobra por esas noches (el precio de cada reserva repartido entre sus noches)
+    private double ingresos;
+    // Reservas que empiezan en los próximos días y la primera de ellas
+    private long checkInsProximos;
+    private LocalDate proximoCheckIn;
+}
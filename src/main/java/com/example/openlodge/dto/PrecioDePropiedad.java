@@ -0,0 +1,10 @@
+package com.example.openlodge.dto;
+
+/**
+ * El precio por noche de una propiedad (proyección para las tablas de tarifas)
+ */
+public interface PrecioDePropiedad {
+    Long getPropiedadId();
+
+    Double getPrecioPorNoche();
+}
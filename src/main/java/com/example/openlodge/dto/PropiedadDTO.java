@@ -0,0 +1,57 @@
+package com.example.openlodge.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.example.openlodge.model.Propiedad;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista de lectura de una propiedad: lo que devuelven los endpoints
+ * en lugar de la entidad (sin proxies de Hibernate ni datos privados del anfitrión)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropiedadDTO {
+    private Long id;
+    private String titulo;
+    private String descripcion;
+    private String direccion;
+    private Double precioPorNoche;
+    private int numeroHuespedes;
+    private String imagenPrincipalUrl;
+    private AnfitrionResumen anfitrion;
+    private List<ServicioDTO> servicios = new ArrayList<>();
+
+    /**
+     * Arma el DTO con los servicios que ya tenemos cargados aparte
+     */
+    public static PropiedadDTO desde(Propiedad propiedad, List<ServicioDTO> servicios) {
+        return new PropiedadDTO(
+                propiedad.getId(),
+                propiedad.getTitulo(),
+                propiedad.getDescripcion(),
+                propiedad.getDireccion(),
+                propiedad.getPrecioPorNoche(),
+                propiedad.getNumeroHuespedes(),
+                propiedad.getImagenPrincipalUrl(),
+                AnfitrionResumen.desde(propiedad.getAnfitrion()),
+                servicios);
+    }
+
+    /**
+     * Arma el DTO leyendo los servicios de la entidad (debe estar dentro de una transacción)
+     */
+    public static PropiedadDTO desde(Propiedad propiedad) {
+        List<ServicioDTO> servicios = propiedad.getServicios().stream()
+                .map(ServicioDTO::desde)
+                .sorted(Comparator.comparing(ServicioDTO::getId))
+                .toList();
+        return desde(propiedad, servicios);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.openlodge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una fila de una importación masiva de propiedades (las relaciones van por ID)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropiedadImportada {
+    private String titulo;
+    private String descripcion;
+    private String direccion;
+    private Double precioPorNoche;
+    private int numeroHuespedes;
+    private String imagenPrincipalUrl;
+    private Long anfitrionId;
+    private List<Long> servicioIds = new ArrayList<>();
+}
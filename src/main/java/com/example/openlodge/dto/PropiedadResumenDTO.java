@@ -0,0 +1,35 @@
+package com.example.openlodge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista liviana de una propiedad para los listados (?vista=resumen):
+ * lo justo para dibujar una tarjeta, sin la descripción larga, la dirección,
+ * el anfitrión ni el detalle de cada servicio (sólo sus IDs).
+ */
+@Data
+@NoArgsConstructor
+public class PropiedadResumenDTO {
+    private Long id;
+    private String titulo;
+    private Double precioPorNoche;
+    private int numeroHuespedes;
+    private String imagenPrincipalUrl;
+    private List<Long> servicioIds = new ArrayList<>();
+
+    /**
+     * Lo usa la consulta (SELECT new ...): los servicios se agregan después
+     */
+    public PropiedadResumenDTO(Long id, String titulo, Double precioPorNoche, int numeroHuespedes,
+            String imagenPrincipalUrl) {
+        this.id = id;
+        this.titulo = titulo;
+        this.precioPorNoche = precioPorNoche;
+        this.numeroHuespedes = numeroHuespedes;
+        this.imagenPrincipalUrl = imagenPrincipalUrl;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección liviana de una reserva: sólo el rango de fechas.
+ * La usamos para armar índices en memoria sin cargar entidades completas.
+ */
+public interface RangoReserva {
+    LocalDate getFechaInicio();
+
+    LocalDate getFechaFin();
+}
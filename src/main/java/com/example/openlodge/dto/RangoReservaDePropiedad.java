@@ -0,0 +1,14 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Rango de fechas de una reserva junto con su propiedad (proyección, sin cargar la entidad)
+ */
+public interface RangoReservaDePropiedad {
+    Long getPropiedadId();
+
+    LocalDate getFechaInicio();
+
+    LocalDate getFechaFin();
+}
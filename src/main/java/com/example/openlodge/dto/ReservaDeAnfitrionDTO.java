@@ -0,0 +1,27 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una reserva vista por el anfitrión, armada en la consulta (SELECT new ...):
+ * sin cargar las entidades Reserva, Propiedad ni Usuario
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaDeAnfitrionDTO {
+    private Long id;
+    private Long propiedadId;
+    private String propiedadTitulo;
+    private String huespedNombre;
+    private String huespedApellido;
+    private String huespedEmail;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Double precioTotal;
+    private String notas;
+}
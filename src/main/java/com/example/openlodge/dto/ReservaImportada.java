@@ -0,0 +1,22 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una fila de una importación masiva de reservas (las relaciones van por ID)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaImportada {
+    private Long propiedadId;
+    private Long huespedId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Double precioTotal;
+    private String notas;
+}
@@ -1,6 +1,8 @@
 package com.example.openlodge.dto;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import lombok.Data;
 
@@ -9,6 +11,9 @@ public class ReservaRequest {
     private Long propiedadId;
     private LocalDate fechaInicio;
     private LocalDate fechaFin;
+    // Ya no se usa: el precio lo calcula MotorPrecios (queda para no romper a los clientes que lo mandan)
     private Double precioTotal;
     private String notas;
+    // Servicios de la propiedad que el huésped quiere sumar (se cobran una vez por estadía)
+    private List<Long> servicioIds = new ArrayList<>();
 }
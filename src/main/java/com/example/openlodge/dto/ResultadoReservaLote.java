@@ -0,0 +1,32 @@
+package com.example.openlodge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Qué pasó con cada reserva de un lote (en el mismo orden en que se pidieron)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoReservaLote {
+    private int indice;
+    private Long propiedadId;
+    private Estado estado;
+    private Long reservaId;
+    private String mensaje;
+
+    public enum Estado {
+        // Se guardó (reservaId tiene el ID nuevo)
+        CREADA,
+        // Las fechas se superponen con otra reserva (existente o del mismo lote)
+        CONFLICTO,
+        // La propiedad no existe
+        NO_ENCONTRADA,
+        // Faltan datos o el rango de fechas no es válido
+        INVALIDA,
+        // Era válida, pero no se guardó porque otra del lote falló (modo TODO_O_NADA)
+        NO_PROCESADA
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.openlodge.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ocupación, ingresos y próximos check-ins de todas las propiedades de un anfitrión
+ * en la ventana [desde, hasta), con los totales
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenAnfitrionDTO {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private long nochesOcupadas;
+    // Sobre todas las noches disponibles (propiedades x días de la ventana)
+    private double tasaOcupacion;
+    private double ingresos;
+    private List<OcupacionPropiedadDTO> propiedades;
+}
@@ -0,0 +1,27 @@
+package com.example.openlodge.dto;
+
+import com.example.openlodge.model.Servicio;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un servicio (WIFI, Pileta, etc.) tal como lo devuelve la API
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServicioDTO {
+    private Long id;
+    private String nombre;
+    private Double costo;
+
+    public static ServicioDTO desde(Servicio servicio) {
+        return new ServicioDTO(servicio.getId(), servicio.getNombre(), servicio.getCosto());
+    }
+
+    public static ServicioDTO desde(ServicioDePropiedad fila) {
+        return new ServicioDTO(fila.getServicioId(), fila.getNombre(), fila.getCosto());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.openlodge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fila de la consulta que trae, de una sola vez, los servicios de varias propiedades.
+ * Se arma con "SELECT new ..." en PropiedadRepository.
+ */
+@Getter
+@AllArgsConstructor
+public class ServicioDePropiedad {
+    private final Long propiedadId;
+    private final Long servicioId;
+    private final String nombre;
+    private final Double costo;
+}
@@ -0,0 +1,10 @@
+package com.example.openlodge.dto;
+
+/**
+ * Un servicio de una propiedad, sólo los IDs (proyección para la vista resumen)
+ */
+public interface ServicioIdDePropiedad {
+    Long getPropiedadId();
+
+    Long getServicioId();
+}
@@ -0,0 +1,46 @@
+package com.example.openlodge.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una reserva pedida en modo asincrónico (POST /api/reservas/solicitudes) y en qué quedó.
+ * Es lo que se devuelve al consultar la solicitud y también cada línea del diario de ColaReservas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolicitudReserva {
+    // Clave de idempotencia que eligió el cliente (header Idempotency-Key)
+    private String clave;
+    private String emailHuesped;
+    private ReservaRequest reserva;
+    private Estado estado;
+    private Long reservaId;
+    private String mensaje;
+    private Instant aceptada;
+    private Instant terminada;
+    // Orden de llegada (lo asigna ColaReservas). Sólo va al diario, no a las respuestas
+    @JsonIgnore
+    private Long secuencia;
+
+    public enum Estado {
+        // En la cola, todavía sin procesar
+        PENDIENTE,
+        // Se guardó (reservaId tiene el ID nuevo)
+        CREADA,
+        // Las fechas se superponen con otra reserva
+        CONFLICTO,
+        // La propiedad (o el huésped) no existe
+        NO_ENCONTRADA,
+        // Faltan datos, el rango de fechas no es válido o la propiedad no ofrece un servicio
+        INVALIDA,
+        // No se pudo guardar después de varios intentos (p. ej. la BD no respondía)
+        FALLIDA
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.openlodge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una propiedad sugerida mientras el huésped escribe (lo justo para mostrarla en la lista)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaPropiedadDTO {
+    private Long id;
+    private String titulo;
+    private String direccion;
+}
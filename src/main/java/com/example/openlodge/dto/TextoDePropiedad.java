@@ -0,0 +1,14 @@
+package com.example.openlodge.dto;
+
+/**
+ * Los textos de una propiedad que entran al índice de búsqueda (proyección, sin cargar la entidad)
+ */
+public interface TextoDePropiedad {
+    Long getId();
+
+    String getTitulo();
+
+    String getDescripcion();
+
+    String getDireccion();
+}
@@ -0,0 +1,16 @@
+package com.example.openlodge.evento;
+
+import java.time.LocalDate;
+
+import com.example.openlodge.model.Reserva;
+
+/**
+ * Lo que los eventos de reservas cuentan de cada una: qué propiedad, qué noches y cuánto se cobró
+ */
+public record Estadia(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin, double precioTotal) {
+
+    public static Estadia de(Reserva reserva) {
+        return new Estadia(reserva.getPropiedad().getId(), reserva.getFechaInicio(), reserva.getFechaFin(),
+                reserva.getPrecioTotal());
+    }
+}
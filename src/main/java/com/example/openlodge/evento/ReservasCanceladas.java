@@ -0,0 +1,9 @@
+package com.example.openlodge.evento;
+
+import java.util.List;
+
+/**
+ * Se borraron (cancelaron) reservas. Se publica dentro de la transacción que las borra.
+ */
+public record ReservasCanceladas(List<Estadia> estadias) {
+}
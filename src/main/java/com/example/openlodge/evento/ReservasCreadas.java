@@ -0,0 +1,10 @@
+package com.example.openlodge.evento;
+
+import java.util.List;
+
+/**
+ * Se guardaron reservas nuevas (una, un lote o una importación).
+ * Se publica dentro de la transacción que las guarda.
+ */
+public record ReservasCreadas(List<Estadia> estadias) {
+}
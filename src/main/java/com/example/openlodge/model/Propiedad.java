@@ -3,6 +3,8 @@ package com.example.openlodge.model;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -62,7 +64,11 @@ public class Propiedad {
 
     // Esto crea una tabla separada "propiedad_servicios"
     // que contiene "WIFI", "Pileta", etc asociadas a la propiedad
-    @ManyToMany(fetch = FetchType.EAGER) // EAGER: Cargar los servicios con la propiedad
+    // LAZY: los servicios se cargan sólo cuando se usan. Para los listados los
+    // traemos todos juntos con una consulta aparte (ver PropiedadService), y si
+    // se recorren desde la entidad, Hibernate los pide de a lotes (BatchSize)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
         name = "propiedad_x_servicio", // tabla intermedia
         joinColumns = @JoinColumn(name = "propiedad_id"),
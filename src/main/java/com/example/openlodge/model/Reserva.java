@@ -2,6 +2,8 @@ package com.example.openlodge.model;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -56,4 +58,13 @@ public class Reserva {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "huesped_id", nullable = false)
     private Usuario huesped;
+
+    /**
+     * La clave de idempotencia de la solicitud asincrónica que creó la reserva
+     * (null en las reservas sincrónicas). Única por huésped.
+     * Es interna: no sale en el JSON (el anfitrión ve las reservas de sus huéspedes)
+     */
+    @Column(nullable = true, length = 100)
+    @JsonIgnore
+    private String claveIdempotencia;
 }
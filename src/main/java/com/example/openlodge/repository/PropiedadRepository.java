@@ -1,15 +1,160 @@
 package com.example.openlodge.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.openlodge.dto.PrecioDePropiedad;
+import com.example.openlodge.dto.PropiedadResumenDTO;
+import com.example.openlodge.dto.ServicioDePropiedad;
+import com.example.openlodge.dto.ServicioIdDePropiedad;
+import com.example.openlodge.dto.SugerenciaPropiedadDTO;
+import com.example.openlodge.dto.TextoDePropiedad;
 import com.example.openlodge.model.Propiedad;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PropiedadRepository extends JpaRepository<Propiedad, Long> {
     
     // "SELECT * FROM propiedades WHERE anfitrion_id = ?"
-    List<Propiedad> findByAnfitrionId(Long anfitrionId);
+    // (con JOIN al anfitrión, que siempre mostramos junto a la propiedad)
+    @EntityGraph(attributePaths = "anfitrion")
+    List<Propiedad> findByAnfitrionIdOrderByIdAsc(Long anfitrionId);
+
+    /**
+     * Detalle de una propiedad con su anfitrión y sus servicios, en una sola consulta
+     */
+    @EntityGraph(attributePaths = { "anfitrion", "servicios" })
+    @Query("SELECT p FROM Propiedad p WHERE p.id = :id")
+    Optional<Propiedad> findDetalleById(Long id);
+
+    /**
+     * Los servicios de VARIAS propiedades en una sola consulta
+     * (en vez de una consulta por propiedad)
+     */
+    @Query("SELECT new com.example.openlodge.dto.ServicioDePropiedad(p.id, s.id, s.nombre, s.costo) " +
+            "FROM Propiedad p JOIN p.servicios s WHERE p.id IN :propiedadIds ORDER BY s.id")
+    List<ServicioDePropiedad> findServiciosDePropiedades(Collection<Long> propiedadIds);
+
+    /**
+     * Paginación por cursor (keyset): trae las siguientes 'limite' propiedades
+     * cuyo ID es mayor al último que vio el cliente.
+     * "SELECT * FROM propiedades WHERE id > ? ORDER BY id LIMIT ?"
+     */
+    @EntityGraph(attributePaths = "anfitrion")
+    List<Propiedad> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    /**
+     * Igual que findByIdGreaterThanOrderByIdAsc, pero trae sólo las columnas
+     * de la vista resumen (sin la descripción ni el anfitrión)
+     */
+    @Query("SELECT new com.example.openlodge.dto.PropiedadResumenDTO(" +
+            "p.id, p.titulo, p.precioPorNoche, p.numeroHuespedes, p.imagenPrincipalUrl) " +
+            "FROM Propiedad p WHERE p.id > :id ORDER BY p.id")
+    List<PropiedadResumenDTO> findResumenesDespuesDe(long id, Limit limite);
+
+    /**
+     * Vista resumen de las propiedades de un anfitrión
+     */
+    @Query("SELECT new com.example.openlodge.dto.PropiedadResumenDTO(" +
+            "p.id, p.titulo, p.precioPorNoche, p.numeroHuespedes, p.imagenPrincipalUrl) " +
+            "FROM Propiedad p WHERE p.anfitrion.id = :anfitrionId ORDER BY p.id")
+    List<PropiedadResumenDTO> findResumenesByAnfitrionId(Long anfitrionId);
+
+    /**
+     * Sólo los IDs de los servicios de VARIAS propiedades (para la vista resumen)
+     */
+    @Query("SELECT p.id AS propiedadId, s.id AS servicioId " +
+            "FROM Propiedad p JOIN p.servicios s WHERE p.id IN :propiedadIds ORDER BY s.id")
+    List<ServicioIdDePropiedad> findServicioIdsDePropiedades(Collection<Long> propiedadIds);
+
+    /**
+     * El precio por noche de VARIAS propiedades (para las tablas de tarifas de MotorPrecios)
+     */
+    @Query("SELECT p.id AS propiedadId, p.precioPorNoche AS precioPorNoche FROM Propiedad p WHERE p.id IN :propiedadIds")
+    List<PrecioDePropiedad> findPreciosDePropiedades(Collection<Long> propiedadIds);
+
+    /**
+     * Búsqueda con filtros, resuelta en UNA sola consulta (paginada por cursor).
+     * Cada filtro nulo se ignora. Excluye las propiedades que tengan alguna
+     * reserva superpuesta con [fechaInicio, fechaFin) y exige que la propiedad
+     * tenga todos los servicios de 'servicioIds'.
+     */
+    @EntityGraph(attributePaths = "anfitrion")
+    @Query("SELECT p FROM Propiedad p WHERE p.id > :cursor " +
+            "AND (:huespedes IS NULL OR p.numeroHuespedes >= :huespedes) " +
+            "AND (:precioMin IS NULL OR p.precioPorNoche >= :precioMin) " +
+            "AND (:precioMax IS NULL OR p.precioPorNoche <= :precioMax) " +
+            "AND (:fechaInicio IS NULL OR NOT EXISTS (" +
+            "    SELECT r.id FROM Reserva r WHERE r.propiedad = p " +
+            "    AND r.fechaInicio < :fechaFin AND r.fechaFin > :fechaInicio)) " +
+            "AND (:cantidadServicios = 0 OR " +
+            "    (SELECT COUNT(s) FROM p.servicios s WHERE s.id IN :servicioIds) = :cantidadServicios) " +
+            "ORDER BY p.id")
+    List<Propiedad> buscar(
+            long cursor,
+            Integer huespedes,
+            Double precioMin,
+            Double precioMax,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            List<Long> servicioIds,
+            long cantidadServicios,
+            Limit limite);
+
+    /**
+     * Recorre TODAS las propiedades como un Stream (cursor de la BD),
+     * de a 'fetchSize' filas, sin cargarlas todas en memoria.
+     * Debe usarse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p FROM Propiedad p JOIN FETCH p.anfitrion ORDER BY p.id")
+    Stream<Propiedad> streamAll();
+
+    /**
+     * Igual que findById, pero bloquea la fila de la propiedad
+     * ("SELECT ... FOR UPDATE") hasta que termine la transacción.
+     * Así dos reservas de la MISMA propiedad no pueden validarse a la vez,
+     * aunque vengan de instancias distintas de la app.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Propiedad p WHERE p.id = :id")
+    Optional<Propiedad> findByIdParaReservar(Long id);
+
+    /**
+     * Igual que findByIdParaReservar pero para varias propiedades a la vez (reservas en lote).
+     * Se bloquean en orden de ID, así dos lotes nunca se traban entre sí (deadlock).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Propiedad p WHERE p.id IN :ids ORDER BY p.id")
+    List<Propiedad> findAllByIdParaReservar(Collection<Long> ids);
+
+    /**
+     * Los textos de todas las propiedades, de a una fila, para armar el índice de búsqueda
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p.id AS id, p.titulo AS titulo, p.descripcion AS descripcion, p.direccion AS direccion " +
+            "FROM Propiedad p ORDER BY p.id")
+    Stream<TextoDePropiedad> streamTextos();
+
+    /**
+     * Sugerencias por título o dirección con LIKE, para cuando el índice de búsqueda
+     * todavía se está cargando
+     */
+    @Query("SELECT new com.example.openlodge.dto.SugerenciaPropiedadDTO(p.id, p.titulo, p.direccion) FROM Propiedad p " +
+            "WHERE LOWER(p.titulo) LIKE :patron OR LOWER(p.direccion) LIKE :patron ORDER BY p.id")
+    List<SugerenciaPropiedadDTO> findSugerencias(String patron, Limit limite);
 }
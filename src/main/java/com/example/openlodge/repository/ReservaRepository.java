@@ -1,12 +1,18 @@
 package com.example.openlodge.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.openlodge.dto.ClaveDeReserva;
+import com.example.openlodge.dto.RangoReserva;
+import com.example.openlodge.dto.RangoReservaDePropiedad;
+import com.example.openlodge.dto.ReservaDeAnfitrionDTO;
 import com.example.openlodge.model.Reserva;
 
 @Repository
@@ -26,21 +32,73 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
        List<Reserva> findByPropiedadAnfitrionId(Long anfitrionId);
 
        /**
-        * Busca reservas que se superpongan con un rango de fechas dado.
+        * Indica si existe al menos una reserva que se superponga con el rango dado.
         *
         * Una reserva (A) se superpone con otra (B) si:
         * (A.Inicio < B.Fin) Y (A.Fin > B.Inicio)
+        *
+        * No carga entidades: la consulta pide una sola fila y la BD corta en la
+        * primera que encuentra.
         */
-       @Query("SELECT r FROM Reserva r WHERE r.propiedad.id = :propiedadId " +
-                     "AND r.fechaInicio < :fechaFin " +
-                     "AND r.fechaFin > :fechaInicio")
-       List<Reserva> findOverlappingReservas(
+       default boolean existsOverlappingReserva(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin) {
+              return existsByPropiedadIdAndFechaInicioBeforeAndFechaFinAfter(propiedadId, fechaFin, fechaInicio);
+       }
+
+       boolean existsByPropiedadIdAndFechaInicioBeforeAndFechaFinAfter(
                      Long propiedadId,
-                     LocalDate fechaInicio,
-                     LocalDate fechaFin);
+                     LocalDate fechaFin,
+                     LocalDate fechaInicio);
+
+       /**
+        * Indica si la propiedad tiene alguna reserva (sin cargarlas)
+        */
+       boolean existsByPropiedadId(Long propiedadId);
+
+       /**
+        * Devuelve sólo los rangos de fechas (sin cargar entidades) de las
+        * reservas de una propiedad que terminan después de una fecha dada.
+        * Lo usa el índice de disponibilidad en memoria.
+        */
+       @Query("SELECT r.fechaInicio AS fechaInicio, r.fechaFin AS fechaFin FROM Reserva r " +
+                     "WHERE r.propiedad.id = :propiedadId AND r.fechaFin > :desde")
+       List<RangoReserva> findRangosByPropiedadId(Long propiedadId, LocalDate desde);
+
+       /**
+        * Rangos de las reservas de VARIAS propiedades que tocan la ventana [desde, hasta).
+        * Con una sola consulta se validan todas las reservas de un lote.
+        */
+       @Query("SELECT r.propiedad.id AS propiedadId, r.fechaInicio AS fechaInicio, r.fechaFin AS fechaFin " +
+                     "FROM Reserva r WHERE r.propiedad.id IN :propiedadIds " +
+                     "AND r.fechaInicio < :hasta AND r.fechaFin > :desde")
+       List<RangoReservaDePropiedad> findRangosEnVentana(
+                     Collection<Long> propiedadIds,
+                     LocalDate desde,
+                     LocalDate hasta);
+
+       /**
+        * Las reservas que ya se crearon con alguna de estas claves de idempotencia
+        * (de estos huéspedes). ColaReservas las usa para no confundir un reproceso
+        * con un conflicto.
+        */
+       @Query("SELECT r.huesped.id AS huespedId, r.claveIdempotencia AS clave, r.id AS id FROM Reserva r " +
+                     "WHERE r.huesped.id IN :huespedIds AND r.claveIdempotencia IN :claves")
+       List<ClaveDeReserva> findClavesIdempotencia(Collection<Long> huespedIds, Collection<String> claves);
 
        /**
-        * Busca todas las reservas asociadas a un ID de propiedad
+        * Una página (por cursor de ID) de las reservas de un anfitrión que tocan la
+        * ventana [desde, hasta), con las columnas justas y sin cargar entidades
         */
-       List<Reserva> findByPropiedadId(Long propiedadId);
+       @Query("SELECT new com.example.openlodge.dto.ReservaDeAnfitrionDTO(" +
+                     "r.id, p.id, p.titulo, h.nombre, h.apellido, h.email, " +
+                     "r.fechaInicio, r.fechaFin, r.precioTotal, r.notas) " +
+                     "FROM Reserva r JOIN r.propiedad p JOIN r.huesped h " +
+                     "WHERE p.anfitrion.id = :anfitrionId AND r.id > :cursor " +
+                     "AND r.fechaInicio < :hasta AND r.fechaFin > :desde " +
+                     "ORDER BY r.id")
+       List<ReservaDeAnfitrionDTO> findDeAnfitrionEnVentana(
+                     Long anfitrionId,
+                     LocalDate desde,
+                     LocalDate hasta,
+                     long cursor,
+                     Limit limite);
 }
@@ -1,5 +1,7 @@
 package com.example.openlodge.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,4 +13,6 @@ import com.example.openlodge.model.Usuario;
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     Optional<Usuario> findByEmail(String email);
+
+    List<Usuario> findByEmailIn(Collection<String> emails);
 }
@@ -0,0 +1,240 @@
+package com.example.openlodge.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.example.openlodge.config.DataSourceConReplicas;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.Getter;
+
+/**
+ * Caché de lectura para los endpoints públicos que se piden en cada carga de página:
+ * el catálogo de servicios, el detalle de una propiedad y las páginas del listado.
+ *
+ * Guardamos la respuesta YA serializada (los bytes del JSON) junto con su ETag.
+ * Así un acierto no toca la BD ni Jackson, y si el cliente manda If-None-Match
+ * con el mismo ETag respondemos 304 sin cuerpo.
+ *
+ * - Las dos cachés tienen tamaño máximo y vencimiento (TTL), por si algún cambio
+ *   se hace por fuera de la aplicación.
+ * - Una página del listado puede cambiar con cualquier propiedad (o una nueva):
+ *   cualquier cambio descarta todas las páginas, y su TTL es corto.
+ * - Las escrituras invalidan la entrada recién cuando la transacción confirma,
+ *   para que nadie vuelva a cachear la versión vieja mientras tanto.
+ * - Con réplicas de lectura, lo que se cachea se lee siempre de la primaria: una
+ *   réplica atrasada podría devolver justo la versión que se acaba de invalidar.
+ */
+@Service
+public class CacheLecturasService {
+    // El catálogo es uno solo: usamos una clave fija
+    private static final String CATALOGO = "catalogo";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, RespuestaCacheada> servicios;
+    private final Cache<Long, RespuestaCacheada> propiedades;
+    private final Cache<String, PaginaCacheada> paginas;
+
+    @Autowired
+    public CacheLecturasService(ObjectMapper objectMapper,
+            @Value("${cache.servicios.ttl:1h}") Duration ttlServicios,
+            @Value("${cache.propiedades.max-entradas:1000}") long maxPropiedades,
+            @Value("${cache.propiedades.ttl:10m}") Duration ttlPropiedades,
+            @Value("${cache.paginas.max-entradas:500}") long maxPaginas,
+            @Value("${cache.paginas.ttl:1m}") Duration ttlPaginas) {
+        this.objectMapper = objectMapper;
+        this.servicios = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttlServicios)
+                .recordStats()
+                .build();
+        this.propiedades = Caffeine.newBuilder()
+                .maximumSize(maxPropiedades)
+                .expireAfterWrite(ttlPropiedades)
+                .recordStats()
+                .build();
+        this.paginas = Caffeine.newBuilder()
+                .maximumSize(maxPaginas)
+                .expireAfterWrite(ttlPaginas)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Catálogo de servicios serializado. Si no está en la caché lo carga con 'cargar'.
+     */
+    public RespuestaCacheada catalogoServicios(Supplier<?> cargar) {
+        return servicios.get(CATALOGO, clave -> serializar(DataSourceConReplicas.enPrimaria(cargar)));
+    }
+
+    /**
+     * Detalle de una propiedad serializado. Si no está en la caché lo carga con 'cargar';
+     * si la propiedad no existe devuelve vacío (y no se guarda nada).
+     */
+    public Optional<RespuestaCacheada> propiedad(Long id, Function<Long, ? extends Optional<?>> cargar) {
+        return Optional.ofNullable(propiedades.get(id,
+                clave -> DataSourceConReplicas.enPrimaria(() -> cargar.apply(clave)).map(this::serializar).orElse(null)));
+    }
+
+    /**
+     * Una página del listado serializada (la clave identifica vista, cursor y tamaño).
+     * Si no está en la caché la arma con 'cargar'.
+     */
+    public PaginaCacheada paginaPropiedades(String clave, Supplier<Pagina> cargar) {
+        return paginas.get(clave, k -> {
+            Pagina pagina = DataSourceConReplicas.enPrimaria(cargar);
+            return new PaginaCacheada(serializar(pagina.elementos()), pagina.siguienteCursor());
+        });
+    }
+
+    /**
+     * Descarta el detalle cacheado de una propiedad (y las páginas del listado,
+     * donde también aparece) cuando la transacción actual confirme
+     */
+    public void invalidarPropiedad(Long id) {
+        Transacciones.alConfirmar(() -> {
+            propiedades.invalidate(id);
+            paginas.invalidateAll();
+        });
+    }
+
+    /**
+     * Descarta las páginas del listado cuando la transacción actual confirme
+     * (por ejemplo, porque se agregaron propiedades)
+     */
+    public void invalidarPaginas() {
+        Transacciones.alConfirmar(paginas::invalidateAll);
+    }
+
+    /**
+     * Descarta el catálogo de servicios cacheado cuando la transacción actual confirme
+     */
+    public void invalidarServicios() {
+        Transacciones.alConfirmar(servicios::invalidateAll);
+    }
+
+    public Cache<String, RespuestaCacheada> getServicios() {
+        return servicios;
+    }
+
+    public Cache<Long, RespuestaCacheada> getPropiedades() {
+        return propiedades;
+    }
+
+    public Cache<String, PaginaCacheada> getPaginas() {
+        return paginas;
+    }
+
+    // --- Métodos Privados ---
+
+    private RespuestaCacheada serializar(Object valor) {
+        try {
+            byte[] cuerpo = objectMapper.writeValueAsBytes(valor);
+            return new RespuestaCacheada(cuerpo, calcularEtag(cuerpo));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    // ETag débil: los primeros 16 bytes del SHA-256 del cuerpo, entre comillas.
+    // Débil porque Tomcat no comprime (gzip) respuestas con ETag fuerte: el fuerte
+    // promete los mismos bytes, y comprimidos ya no lo son.
+    private static String calcularEtag(byte[] cuerpo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM, no debería pasar nunca
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Una respuesta JSON lista para mandar: el cuerpo ya serializado y su ETag
+     */
+    @Getter
+    public static class RespuestaCacheada {
+        private final byte[] cuerpo;
+        private final String etag;
+
+        public RespuestaCacheada(byte[] cuerpo, String etag) {
+            this.cuerpo = cuerpo;
+            this.etag = etag;
+        }
+
+        /**
+         * Arma la respuesta HTTP: 304 sin cuerpo si el cliente ya tiene esta versión
+         * (If-None-Match), o 200 con los bytes cacheados.
+         */
+        public ResponseEntity<byte[]> responder(String ifNoneMatch) {
+            return responder(ifNoneMatch, HttpHeaders.EMPTY);
+        }
+
+        /**
+         * Igual que responder(ifNoneMatch), agregando headers propios (por ejemplo el cursor)
+         */
+        public ResponseEntity<byte[]> responder(String ifNoneMatch, HttpHeaders headers) {
+            if (coincide(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).eTag(etag).build();
+            }
+            return ResponseEntity.ok().headers(headers).eTag(etag).contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+        }
+
+        // If-None-Match puede traer "*" o una lista de ETags (fuertes o débiles);
+        // se comparan sin el prefijo W/ (comparación débil, como pide la RFC 9110)
+        private boolean coincide(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidato : ifNoneMatch.split(",")) {
+                String valor = candidato.trim();
+                if (valor.startsWith("W/")) {
+                    valor = valor.substring(2);
+                }
+                if (valor.equals("*") || valor.equals(etag.substring(2))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Lo que arma quien carga una página: los elementos y el cursor de la siguiente (o null)
+     */
+    public record Pagina(List<?> elementos, Long siguienteCursor) {
+    }
+
+    /**
+     * Una página del listado lista para mandar: la respuesta serializada y el cursor
+     * de la página siguiente (null si era la última)
+     */
+    @Getter
+    public static class PaginaCacheada {
+        private final RespuestaCacheada respuesta;
+        private final Long siguienteCursor;
+
+        public PaginaCacheada(RespuestaCacheada respuesta, Long siguienteCursor) {
+            this.respuesta = respuesta;
+            this.siguienteCursor = siguienteCursor;
+        }
+    }
+}
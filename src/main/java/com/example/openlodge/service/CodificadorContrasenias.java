@@ -0,0 +1,152 @@
+package com.example.openlodge.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Codificador de contraseñas (BCrypt) con la CPU acotada.
+ *
+ * Cada hash de BCrypt cuesta decenas de milisegundos de CPU a propósito. Si los
+ * logins corrieran en los hilos de las peticiones, una ráfaga de logins (una
+ * campaña o un ataque de credential stuffing) ocuparía todos los núcleos y
+ * frenaría también las reservas. Por eso:
+ *
+ * - Los hashes corren en un pool propio con pocos hilos y una cola acotada.
+ * - Si la cola está llena, o el hash no arranca a tiempo, rechazamos enseguida
+ *   (RejectedExecutionException, que se responde con 503) en vez de encolar sin límite.
+ * - El costo de BCrypt es configurable pero tiene un máximo. Los hashes guardados
+ *   con un costo menor se recalculan en el próximo login exitoso (upgradeEncoding,
+ *   lo usa DaoAuthenticationProvider junto con UserDetailsServiceImpl.updatePassword).
+ * - Se mide la latencia de cada hash (contrasenias.hash) y los rechazos.
+ */
+@Component
+public class CodificadorContrasenias implements PasswordEncoder {
+
+    // Cada punto de costo duplica el tiempo: con 14 un hash ya ronda el segundo
+    public static final int COSTO_MAXIMO = 14;
+
+    private static final String SATURADO = "Hay demasiadas contraseñas en proceso; reintentar en unos segundos.";
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor pool;
+    private final Duration esperaMaxima;
+    private final Timer tiempoVerificar;
+    private final Timer tiempoCodificar;
+    private final Counter rechazos;
+
+    @Autowired
+    public CodificadorContrasenias(MeterRegistry meterRegistry,
+            @Value("${seguridad.contrasenias.costo:10}") int costo,
+            @Value("${seguridad.contrasenias.hilos:0}") int hilos,
+            @Value("${seguridad.contrasenias.cola:64}") int cola,
+            @Value("${seguridad.contrasenias.espera-maxima:2s}") Duration esperaMaxima) {
+        if (costo < 4 || costo > COSTO_MAXIMO) {
+            throw new IllegalArgumentException(
+                    "seguridad.contrasenias.costo debe estar entre 4 y " + COSTO_MAXIMO + " (vino " + costo + ").");
+        }
+        this.bcrypt = new BCryptPasswordEncoder(costo);
+        this.esperaMaxima = esperaMaxima;
+
+        // 0 hilos = la mitad de los núcleos (al menos 1): la otra mitad queda para el resto de la API
+        int hilosPool = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numero = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilosPool, hilosPool, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-contrasenias-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.tiempoVerificar = Timer.builder("contrasenias.hash")
+                .description("Tiempo de cada hash de BCrypt (sin contar la espera en la cola)")
+                .tag("operacion", "verificar")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tiempoCodificar = Timer.builder("contrasenias.hash")
+                .description("Tiempo de cada hash de BCrypt (sin contar la espera en la cola)")
+                .tag("operacion", "codificar")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rechazos = Counter.builder("contrasenias.rechazos")
+                .description("Hashes rechazados porque el pool estaba saturado")
+                .register(meterRegistry);
+        Gauge.builder("contrasenias.cola", pool, p -> p.getQueue().size())
+                .description("Hashes esperando un hilo libre")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence contrasenia) {
+        return ejecutar(() -> tiempoCodificar.record(() -> bcrypt.encode(contrasenia)));
+    }
+
+    @Override
+    public boolean matches(CharSequence contrasenia, String hashGuardado) {
+        return ejecutar(() -> tiempoVerificar.record(() -> bcrypt.matches(contrasenia, hashGuardado)));
+    }
+
+    /**
+     * true si el hash se guardó con un costo menor al configurado (hay que recalcularlo)
+     */
+    @Override
+    public boolean upgradeEncoding(String hashGuardado) {
+        return bcrypt.upgradeEncoding(hashGuardado);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    // --- Métodos Privados ---
+
+    // Corre el hash en el pool y espera el resultado; si no hay lugar o tarda demasiado, rechaza
+    private <T> T ejecutar(Callable<T> hash) {
+        Future<T> resultado;
+        try {
+            resultado = pool.submit(hash);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new RejectedExecutionException(SATURADO);
+        }
+
+        try {
+            return resultado.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            rechazos.increment();
+            throw new RejectedExecutionException(SATURADO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new IllegalStateException("Se interrumpió el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falló el hash de la contraseña", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package com.example.openlodge.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.openlodge.dto.LoteReservaResponse;
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.dto.ResultadoReservaLote;
+import com.example.openlodge.dto.SolicitudReserva;
+import com.example.openlodge.dto.SolicitudReserva.Estado;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Reservas asincrónicas (POST /api/reservas/solicitudes), para las ventas relámpago.
+ *
+ * Cuando cientos de huéspedes piden las mismas propiedades a la vez, cada petición
+ * sincrónica ocupa un hilo y una conexión esperando su candado. Acá, en cambio, la
+ * solicitud se acepta enseguida (202) y se confirma después, de a lotes:
+ *
+ * - Cada solicitud trae una clave de idempotencia (header Idempotency-Key) elegida por
+ *   el cliente. Reintentar con la misma clave devuelve la misma solicitud, no crea otra.
+ * - Hay una cola por hilo trabajador y cada propiedad cae siempre en la misma cola:
+ *   las solicitudes de una propiedad se procesan en orden de llegada y nunca en dos
+ *   hilos a la vez. Cada hilo junta hasta 'lote' solicitudes y las confirma en UNA
+ *   transacción (CoordinadorReservas.crearReservasDeVariosHuespedes, MEJOR_ESFUERZO).
+ * - La capacidad es acotada: con 'capacidad' solicitudes pendientes se rechaza (503).
+ *
+ * Diario: cada solicitud aceptada se escribe en un archivo local (y se fuerza a disco)
+ * ANTES de responder 202, y cada resultado al terminar. Las líneas se agregan con el
+ * candado 'escritura' pero el force se hace afuera y en grupo: un solo force cubre
+ * todo lo escrito hasta ese momento, así los hilos que aceptan en paralelo (y el lote
+ * de resultados entero) comparten la espera del disco en vez de hacer fila. Al arrancar se relee: las
+ * pendientes vuelven a su cola y las terminadas siguen respondiendo a su clave durante
+ * 'retencion'. La clave también se guarda en la reserva, en la misma transacción: si la
+ * app se cae después de confirmar un lote pero antes de anotar sus resultados, al
+ * reprocesarlas se encuentra la reserva por su clave y salen como CREADA con su ID.
+ * La reserva existe una sola vez, nunca se duplica.
+ */
+@Component
+public class ColaReservas {
+
+    // Lo que aceptamos como clave de idempotencia (un UUID entra de sobra)
+    private static final Pattern CLAVE_VALIDA = Pattern.compile("[A-Za-z0-9._-]{1,100}");
+    // Por número de llegada; las de diarios anteriores a la numeración (sin número) primero,
+    // en el orden del archivo (el sort es estable)
+    private static final Comparator<SolicitudReserva> EN_ORDEN_DE_LLEGADA =
+            Comparator.comparing(SolicitudReserva::getSecuencia, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final CoordinadorReservas coordinadorReservas;
+    private final ObjectMapper objectMapper;
+    private final int capacidad;
+    private final int tamanioLote;
+    private final int intentos;
+    private final Duration retencion;
+
+    // Pendientes y terminadas, por huésped + clave
+    private final Map<String, SolicitudReserva> pendientes = new ConcurrentHashMap<>();
+    private final Cache<String, SolicitudReserva> terminadas;
+    private final List<LinkedBlockingQueue<SolicitudReserva>> colas = new ArrayList<>();
+    private final ExecutorService trabajadores;
+    private volatile boolean detenida;
+
+    // Diario (null = sólo en memoria). Se escribe siempre con el candado 'escritura'
+    private final Object escritura = new Object();
+    // Se fuerza a disco con este otro candado (nunca se toma teniendo 'escritura')
+    private final Object sincronizacion = new Object();
+    private final Path rutaDiario;
+    private final boolean sincronizarDiario;
+    private final int maxLineasDiario;
+    private FileChannel diario;
+    private FileChannel archivoCandado;
+    private FileLock candadoDiario;
+    // Líneas agregadas desde la última compactación
+    private int lineasNuevas;
+    // Número de la última solicitud aceptada (con 'escritura')
+    private long ultimaSecuencia;
+    // Números de línea (con 'escritura'): la última escrita y la última que ya quedó en disco al compactar
+    private long lineasEscritas;
+    private long lineasCompactadas;
+    // La última línea forzada a disco (con 'sincronizacion')
+    private long lineasSincronizadas;
+
+    private final Counter aceptadas;
+    private final Counter repetidas;
+    private final Counter rechazadas;
+    private final Counter erroresDiario;
+    private final Timer tiempoLotes;
+
+    @Autowired
+    public ColaReservas(CoordinadorReservas coordinadorReservas, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${reservas.asincronas.diario:}") String diario,
+            @Value("${reservas.asincronas.diario-sincronizar:true}") boolean sincronizarDiario,
+            @Value("${reservas.asincronas.diario-max-lineas:100000}") int maxLineasDiario,
+            @Value("${reservas.asincronas.capacidad:10000}") int capacidad,
+            @Value("${reservas.asincronas.hilos:4}") int hilos,
+            @Value("${reservas.asincronas.lote:50}") int tamanioLote,
+            @Value("${reservas.asincronas.intentos:3}") int intentos,
+            @Value("${reservas.asincronas.retencion:24h}") Duration retencion) {
+        this.coordinadorReservas = coordinadorReservas;
+        // El diario guarda también el número de llegada, que las respuestas no muestran
+        this.objectMapper = objectMapper.copy().addMixIn(SolicitudReserva.class, LineaDelDiario.class);
+        this.capacidad = capacidad;
+        this.tamanioLote = tamanioLote;
+        this.intentos = intentos;
+        this.retencion = retencion;
+        this.rutaDiario = diario.isBlank() ? null : Path.of(diario);
+        this.sincronizarDiario = sincronizarDiario;
+        this.maxLineasDiario = maxLineasDiario;
+
+        // Las terminadas se olvidan 'retencion' después de terminar (también las que vienen del diario)
+        this.terminadas = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((String id, SolicitudReserva solicitud) -> restante(solicitud)))
+                .build();
+
+        // 1. Métricas
+        this.aceptadas = contador(meterRegistry, "aceptada");
+        this.repetidas = contador(meterRegistry, "repetida");
+        this.rechazadas = contador(meterRegistry, "rechazada");
+        this.erroresDiario = Counter.builder("reservas.asincronas.diario.errores")
+                .description("Resultados que no se pudieron anotar en el diario")
+                .register(meterRegistry);
+        this.tiempoLotes = Timer.builder("reservas.asincronas.lotes")
+                .description("Tiempo de cada lote de solicitudes confirmado en una transacción")
+                .register(meterRegistry);
+        Gauge.builder("reservas.asincronas.pendientes", pendientes, Map::size)
+                .description("Solicitudes aceptadas que todavía no se procesaron")
+                .register(meterRegistry);
+
+        // 2. Una cola por hilo; las pendientes que quedaron en el diario vuelven a la suya
+        for (int i = 0; i < hilos; i++) {
+            colas.add(new LinkedBlockingQueue<>());
+        }
+        if (rutaDiario != null) {
+            try {
+                abrirDiario();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo abrir el diario de reservas " + rutaDiario, e);
+            }
+        }
+
+        // 3. Los hilos que vacían las colas
+        AtomicInteger numero = new AtomicInteger();
+        this.trabajadores = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "reservas-asincronas-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        for (LinkedBlockingQueue<SolicitudReserva> cola : colas) {
+            trabajadores.execute(() -> trabajar(cola));
+        }
+    }
+
+    /**
+     * Acepta una reserva para procesarla después. Si el huésped ya mandó esa clave,
+     * devuelve la solicitud que ya existe (IllegalStateException si era otra reserva).
+     * RejectedExecutionException si la cola está llena.
+     */
+    public SolicitudReserva aceptar(String clave, ReservaRequest reserva, String emailHuesped) {
+        if (clave == null || !CLAVE_VALIDA.matcher(clave).matches()) {
+            throw new IllegalArgumentException("La clave de idempotencia debe tener de 1 a 100 letras, números, '.', '_' o '-'.");
+        }
+        if (reserva.getPropiedadId() == null) {
+            throw new IllegalArgumentException("Falta la propiedad a reservar.");
+        }
+        String id = id(emailHuesped, clave);
+        SolicitudReserva nueva;
+        long linea;
+
+        synchronized (escritura) {
+            // 1. Clave repetida (un reintento del cliente): la misma solicitud de antes
+            SolicitudReserva existente = buscar(id);
+            if (existente != null) {
+                if (!existente.getReserva().equals(reserva)) {
+                    throw new IllegalStateException("La clave de idempotencia ya se usó para otra reserva.");
+                }
+                repetidas.increment();
+                return existente;
+            }
+
+            // 2. ¿Hay lugar?
+            if (pendientes.size() >= capacidad) {
+                rechazadas.increment();
+                throw new RejectedExecutionException("Hay demasiadas reservas en espera; reintentar en unos segundos.");
+            }
+
+            // 3. Al diario y a la cola de su propiedad
+            nueva = new SolicitudReserva(clave, emailHuesped, reserva, Estado.PENDIENTE,
+                    null, null, Instant.now(), null, ++ultimaSecuencia);
+            try {
+                linea = anotar(nueva);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo anotar la solicitud en el diario.", e);
+            }
+            pendientes.put(id, nueva);
+            colaPara(reserva.getPropiedadId()).add(nueva);
+            aceptadas.increment();
+        }
+
+        // 4. En disco ANTES de responder (si falla, la solicitud igual sigue en la cola:
+        //    el cliente reintenta con la misma clave y recibe esta misma)
+        try {
+            sincronizar(linea);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo anotar la solicitud en el diario.", e);
+        }
+        return nueva;
+    }
+
+    /**
+     * En qué quedó la solicitud 'clave' del huésped (EntityNotFoundException si no existe o ya se olvidó)
+     */
+    public SolicitudReserva obtener(String clave, String emailHuesped) {
+        SolicitudReserva solicitud = buscar(id(emailHuesped, clave));
+        if (solicitud == null) {
+            throw new EntityNotFoundException("Solicitud de reserva no encontrada: " + clave);
+        }
+        return solicitud;
+    }
+
+    public int cantidadPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Deja de tomar solicitudes nuevas de las colas, espera el lote en curso y cierra
+     * el diario. Lo que quedó pendiente se retoma en el próximo arranque.
+     */
+    @PreDestroy
+    public void detener() {
+        detenida = true;
+        trabajadores.shutdown();
+        try {
+            trabajadores.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (escritura) {
+            if (diario == null) {
+                return;
+            }
+            try {
+                diario.close();
+                candadoDiario.release();
+                archivoCandado.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                diario = null;
+            }
+        }
+    }
+
+    // --- Métodos Privados ---
+
+    // Lo que hace cada hilo: esperar solicitudes en su cola y confirmarlas de a lotes
+    private void trabajar(LinkedBlockingQueue<SolicitudReserva> cola) {
+        List<SolicitudReserva> lote = new ArrayList<>(tamanioLote);
+        while (!detenida) {
+            try {
+                SolicitudReserva primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, tamanioLote - 1);
+                procesar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void procesar(List<SolicitudReserva> lote) throws InterruptedException {
+        List<ReservaRequest> reservas = lote.stream().map(SolicitudReserva::getReserva).toList();
+        List<String> emails = lote.stream().map(SolicitudReserva::getEmailHuesped).toList();
+        List<String> claves = lote.stream().map(SolicitudReserva::getClave).toList();
+
+        // 1. Todo el lote en una transacción; si falla (BD caída, timeout) se reintenta un poco más tarde
+        LoteReservaResponse respuesta = null;
+        for (int intento = 1; respuesta == null; intento++) {
+            try {
+                respuesta = tiempoLotes.record(() -> coordinadorReservas.crearReservasDeVariosHuespedes(reservas, emails, claves));
+            } catch (RuntimeException e) {
+                if (detenida) {
+                    // Se está apagando: quedan pendientes en el diario para el próximo arranque
+                    return;
+                }
+                if (intento >= intentos) {
+                    terminar(lote.stream()
+                            .map(solicitud -> terminada(solicitud, Estado.FALLIDA, null,
+                                    "No se pudo guardar la reserva; reintentar con otra clave."))
+                            .toList());
+                    return;
+                }
+                Thread.sleep(200L * intento);
+            }
+        }
+
+        // 2. El resultado de cada una (vienen en el mismo orden)
+        List<SolicitudReserva> resultados = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            ResultadoReservaLote resultado = respuesta.getResultados().get(i);
+            resultados.add(terminada(lote.get(i), estadoDe(resultado), resultado.getReservaId(), resultado.getMensaje()));
+        }
+        terminar(resultados);
+    }
+
+    // Anota los resultados de un lote y los publica; después los fuerza a disco todos juntos
+    private void terminar(List<SolicitudReserva> lote) {
+        long ultima = 0;
+        synchronized (escritura) {
+            for (SolicitudReserva terminada : lote) {
+                try {
+                    ultima = Math.max(ultima, anotar(terminada));
+                } catch (IOException e) {
+                    // La reserva ya está confirmada: seguimos; al releer el diario se la encuentra por su clave
+                    erroresDiario.increment();
+                }
+                String id = id(terminada.getEmailHuesped(), terminada.getClave());
+                terminadas.put(id, terminada);
+                pendientes.remove(id);
+            }
+        }
+        // Si se cae antes del force, la solicitud vuelve PENDIENTE y se resuelve igual que arriba
+        try {
+            sincronizar(ultima);
+        } catch (IOException e) {
+            erroresDiario.increment();
+        }
+    }
+
+    // Una copia nueva: las solicitudes ya publicadas no se modifican (las leen otros hilos)
+    private static SolicitudReserva terminada(SolicitudReserva solicitud, Estado estado, Long reservaId, String mensaje) {
+        return new SolicitudReserva(solicitud.getClave(), solicitud.getEmailHuesped(),
+                solicitud.getReserva(), estado, reservaId, mensaje, solicitud.getAceptada(), Instant.now(),
+                solicitud.getSecuencia());
+    }
+
+    private static Estado estadoDe(ResultadoReservaLote resultado) {
+        return switch (resultado.getEstado()) {
+            case CREADA -> Estado.CREADA;
+            case CONFLICTO -> Estado.CONFLICTO;
+            case NO_ENCONTRADA -> Estado.NO_ENCONTRADA;
+            case INVALIDA -> Estado.INVALIDA;
+            case NO_PROCESADA -> Estado.FALLIDA;
+        };
+    }
+
+    private SolicitudReserva buscar(String id) {
+        SolicitudReserva pendiente = pendientes.get(id);
+        return pendiente != null ? pendiente : terminadas.getIfPresent(id);
+    }
+
+    // La cola de una propiedad (mezclamos los bits para repartir mejor los IDs consecutivos)
+    private LinkedBlockingQueue<SolicitudReserva> colaPara(long propiedadId) {
+        long h = propiedadId * 0x9E3779B97F4A7C15L;
+        return colas.get(Math.floorMod((int) (h ^ (h >>> 32)), colas.size()));
+    }
+
+    private Duration restante(SolicitudReserva solicitud) {
+        Duration restante = Duration.between(Instant.now(), solicitud.getTerminada().plus(retencion));
+        return restante.isNegative() ? Duration.ZERO : restante;
+    }
+
+    private static String id(String emailHuesped, String clave) {
+        return emailHuesped + "\n" + clave;
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("reservas.asincronas.solicitudes")
+                .description("Solicitudes de reserva asincrónicas recibidas, según qué se hizo con ellas")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    // --- Diario ---
+
+    // Toma el diario (una sola instancia por archivo), lo relee y lo deja compactado y abierto para agregar
+    private void abrirDiario() throws IOException {
+        Path carpeta = rutaDiario.toAbsolutePath().getParent();
+        if (carpeta != null) {
+            Files.createDirectories(carpeta);
+        }
+        archivoCandado = FileChannel.open(rutaDiario.resolveSibling(rutaDiario.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        candadoDiario = archivoCandado.tryLock();
+        if (candadoDiario == null) {
+            archivoCandado.close();
+            throw new IllegalStateException("El diario " + rutaDiario + " ya lo está usando otra instancia.");
+        }
+
+        // 1. La última versión de cada solicitud
+        Map<String, SolicitudReserva> ultimas = new LinkedHashMap<>();
+        if (Files.exists(rutaDiario)) {
+            try (BufferedReader lector = Files.newBufferedReader(rutaDiario, StandardCharsets.UTF_8)) {
+                String linea;
+                while ((linea = lector.readLine()) != null) {
+                    if (linea.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        SolicitudReserva solicitud = objectMapper.readValue(linea, SolicitudReserva.class);
+                        ultimas.put(id(solicitud.getEmailHuesped(), solicitud.getClave()), solicitud);
+                    } catch (JsonProcessingException e) {
+                        // Una línea cortada por una caída a mitad de escritura: no llegó a responderse 202
+                    }
+                }
+            }
+        }
+
+        // 2. Pendientes a su cola, en el orden en que se aceptaron; terminadas a la
+        //    memoria mientras no se venzan. La numeración sigue desde la última
+        List<SolicitudReserva> enOrden = new ArrayList<>(ultimas.values());
+        enOrden.sort(EN_ORDEN_DE_LLEGADA);
+        for (SolicitudReserva solicitud : enOrden) {
+            String id = id(solicitud.getEmailHuesped(), solicitud.getClave());
+            if (solicitud.getEstado() == Estado.PENDIENTE) {
+                pendientes.put(id, solicitud);
+                colaPara(solicitud.getReserva().getPropiedadId()).add(solicitud);
+            } else if (!restante(solicitud).isZero()) {
+                terminadas.put(id, solicitud);
+            }
+            if (solicitud.getSecuencia() != null) {
+                ultimaSecuencia = Math.max(ultimaSecuencia, solicitud.getSecuencia());
+            }
+        }
+
+        // 3. Lo reescribimos sólo con lo vigente
+        compactar();
+    }
+
+    // Agrega la línea (con 'escritura' tomado) y devuelve su número, para sincronizar después (0 = sin diario)
+    private long anotar(SolicitudReserva solicitud) throws IOException {
+        if (diario == null) {
+            return 0;
+        }
+        // Se compacta ANTES de escribir: la solicitud nueva todavía no está en 'pendientes'
+        if (lineasNuevas >= maxLineasDiario) {
+            compactar();
+        }
+        escribir(diario, solicitud);
+        lineasNuevas++;
+        return ++lineasEscritas;
+    }
+
+    // Fuerza el diario a disco hasta 'linea' inclusive. Quien llega con el candado ya
+    // libre fuerza todo lo escrito hasta ahora; los que esperaban detrás suyo encuentran
+    // su línea ya sincronizada y no fuerzan de nuevo
+    private void sincronizar(long linea) throws IOException {
+        if (linea == 0 || !sincronizarDiario) {
+            return;
+        }
+        synchronized (sincronizacion) {
+            if (lineasSincronizadas >= linea) {
+                return;
+            }
+            FileChannel canal;
+            long hasta;
+            synchronized (escritura) {
+                if (lineasCompactadas >= linea) {
+                    // Una compactación ya la dejó en disco
+                    lineasSincronizadas = lineasCompactadas;
+                    return;
+                }
+                if (diario == null) {
+                    // Se detuvo la cola antes de llegar al disco
+                    throw new ClosedChannelException();
+                }
+                canal = diario;
+                hasta = lineasEscritas;
+            }
+            try {
+                canal.force(false);
+            } catch (ClosedChannelException e) {
+                // Se compactó mientras forzábamos (el archivo nuevo ya está en disco) o se detuvo la cola
+                synchronized (escritura) {
+                    if (lineasCompactadas < linea) {
+                        throw e;
+                    }
+                }
+            }
+            lineasSincronizadas = hasta;
+        }
+    }
+
+    // Reemplaza el diario por uno con una línea por solicitud vigente (pendiente o terminada hace poco)
+    private void compactar() throws IOException {
+        Path temporal = rutaDiario.resolveSibling(rutaDiario.getFileName() + ".tmp");
+        // Las pendientes en orden de llegada: así vuelven a su cola al releer
+        List<SolicitudReserva> vigentes = new ArrayList<>(pendientes.values());
+        vigentes.sort(EN_ORDEN_DE_LLEGADA);
+        vigentes.addAll(terminadas.asMap().values());
+        try (FileChannel nuevo = FileChannel.open(temporal,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (SolicitudReserva solicitud : vigentes) {
+                escribir(nuevo, solicitud);
+            }
+            nuevo.force(true);
+        }
+        if (diario != null) {
+            diario.close();
+        }
+        Files.move(temporal, rutaDiario, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        diario = FileChannel.open(rutaDiario, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        lineasNuevas = 0;
+        lineasCompactadas = lineasEscritas;
+    }
+
+    private void escribir(FileChannel canal, SolicitudReserva solicitud) throws IOException {
+        ByteBuffer linea = ByteBuffer.wrap((objectMapper.writeValueAsString(solicitud) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        while (linea.hasRemaining()) {
+            canal.write(linea);
+        }
+    }
+
+    // Mixin de Jackson para las líneas del diario: incluye 'secuencia'
+    private abstract static class LineaDelDiario {
+        @JsonIgnore(false)
+        private Long secuencia;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.openlodge.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.openlodge.dto.LoteReservaRequest;
+import com.example.openlodge.dto.LoteReservaResponse;
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.model.Reserva;
+
+/**
+ * Coordina la creación de reservas concurrentes.
+ *
+ * Usa "candados rayados" (striped locks): un arreglo fijo de candados donde
+ * cada propiedad cae siempre en el mismo. Dos reservas de la misma propiedad
+ * se ejecutan una después de la otra; reservas de propiedades distintas
+ * (casi siempre en candados distintos) corren en paralelo.
+ *
+ * El candado se toma ANTES de abrir la transacción y se suelta DESPUÉS del
+ * commit, así la siguiente petición ya ve la reserva confirmada. Además
+ * ReservaService bloquea la fila de la propiedad en la BD, que es lo que
+ * protege si hay varias instancias de la app.
+ */
+@Component
+public class CoordinadorReservas {
+    private final ReservaService reservaService;
+    private final ReentrantLock[] candados;
+
+    @Autowired
+    public CoordinadorReservas(ReservaService reservaService,
+            @Value("${reservas.candados:64}") int cantidadCandados) {
+        this.reservaService = reservaService;
+        this.candados = new ReentrantLock[cantidadCandados];
+        for (int i = 0; i < cantidadCandados; i++) {
+            this.candados[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Crea una reserva, serializando sólo contra otras reservas de la misma propiedad.
+     */
+    public Reserva crearReserva(ReservaRequest request, String emailHuesped) {
+        ReentrantLock candado = candadoPara(request.getPropiedadId());
+        candado.lock();
+        try {
+            return reservaService.crearReserva(request, emailHuesped);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Crea un lote de reservas. Toma los candados de TODAS sus propiedades,
+     * siempre en el mismo orden (por posición en el arreglo), así dos lotes
+     * que comparten propiedades nunca se esperan mutuamente (deadlock).
+     */
+    public LoteReservaResponse crearReservasEnLote(LoteReservaRequest lote, String emailHuesped) {
+        List<ReservaRequest> reservas = lote.getReservas() == null ? List.of() : lote.getReservas();
+        return conCandados(reservas, () -> reservaService.crearReservasEnLote(lote, emailHuesped));
+    }
+
+    /**
+     * Crea reservas de varios huéspedes en una transacción (los lotes de ColaReservas),
+     * con los mismos candados que un lote normal. 'claves' son sus claves de idempotencia.
+     */
+    public LoteReservaResponse crearReservasDeVariosHuespedes(List<ReservaRequest> reservas, List<String> emailsHuespedes,
+            List<String> claves) {
+        return conCandados(reservas, () -> reservaService.crearReservasDeVariosHuespedes(reservas, emailsHuespedes, claves));
+    }
+
+    // Toma los candados de todas las propiedades de 'reservas' en orden, corre 'accion' y los suelta
+    private <T> T conCandados(List<ReservaRequest> reservas, Supplier<T> accion) {
+        int[] posiciones = reservas.stream()
+                .map(ReservaRequest::getPropiedadId)
+                .filter(Objects::nonNull)
+                .mapToInt(this::posicionCandado)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int tomados = 0;
+        try {
+            for (int posicion : posiciones) {
+                candados[posicion].lock();
+                tomados++;
+            }
+            return accion.get();
+        } finally {
+            // Los soltamos en orden inverso
+            for (int i = tomados - 1; i >= 0; i--) {
+                candados[posiciones[i]].unlock();
+            }
+        }
+    }
+
+    // Elige el candado de una propiedad (mezclamos los bits para repartir mejor los IDs consecutivos)
+    private ReentrantLock candadoPara(Long propiedadId) {
+        if (propiedadId == null) {
+            return candados[0];
+        }
+        return candados[posicionCandado(propiedadId)];
+    }
+
+    private int posicionCandado(long propiedadId) {
+        long h = propiedadId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (h ^ (h >>> 32)), candados.length);
+    }
+}
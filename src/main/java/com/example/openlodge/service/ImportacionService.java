@@ -0,0 +1,146 @@
+package com.example.openlodge.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.openlodge.dto.PropiedadImportada;
+import com.example.openlodge.dto.ReservaImportada;
+import com.example.openlodge.evento.Estadia;
+import com.example.openlodge.evento.ReservasCreadas;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Servicio;
+import com.example.openlodge.model.Usuario;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Importación masiva de propiedades y reservas (por ejemplo, al migrar desde otro sistema).
+ *
+ * Pensado para correr con el perfil "ids-por-bloques", donde los INSERT se
+ * agrupan en lotes JDBC (con IDENTITY funciona igual, pero fila por fila).
+ * Se persisten las filas de a 'batch_size', se mandan todas juntas a la BD (flush)
+ * y se vacía el contexto de persistencia (clear) para que la memoria no crezca
+ * con el tamaño de la importación.
+ * Las relaciones se arman con getReference (sin hacer un SELECT por cada ID).
+ *
+ * Las reservas importadas NO se validan contra superposiciones: se asume que
+ * vienen de un sistema que ya las validó.
+ */
+@Service
+public class ImportacionService {
+    private final EntityManager entityManager;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final IndiceBusqueda indiceBusqueda;
+    private final CacheLecturasService cacheLecturas;
+    private final ApplicationEventPublisher eventos;
+    private final int tamanioLote;
+
+    @Autowired
+    public ImportacionService(EntityManager entityManager, IndiceDisponibilidad indiceDisponibilidad, IndiceBusqueda indiceBusqueda,
+            CacheLecturasService cacheLecturas, ApplicationEventPublisher eventos,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanioLote) {
+        this.entityManager = entityManager;
+        this.indiceDisponibilidad = indiceDisponibilidad;
+        this.indiceBusqueda = indiceBusqueda;
+        this.cacheLecturas = cacheLecturas;
+        this.eventos = eventos;
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Importa propiedades (con sus servicios) en una sola transacción.
+     * Devuelve la cantidad de filas importadas.
+     */
+    @Transactional
+    public int importarPropiedades(List<PropiedadImportada> filas) {
+        int importadas = 0;
+        for (PropiedadImportada fila : filas) {
+            // 1. Armamos la entidad con referencias (sin consultas) al anfitrión y los servicios
+            Propiedad propiedad = new Propiedad();
+            propiedad.setTitulo(fila.getTitulo());
+            propiedad.setDescripcion(fila.getDescripcion());
+            propiedad.setDireccion(fila.getDireccion());
+            propiedad.setPrecioPorNoche(fila.getPrecioPorNoche());
+            propiedad.setNumeroHuespedes(fila.getNumeroHuespedes());
+            propiedad.setImagenPrincipalUrl(fila.getImagenPrincipalUrl());
+            propiedad.setAnfitrion(entityManager.getReference(Usuario.class, fila.getAnfitrionId()));
+            if (fila.getServicioIds() != null) {
+                for (Long servicioId : fila.getServicioIds()) {
+                    propiedad.getServicios().add(entityManager.getReference(Servicio.class, servicioId));
+                }
+            }
+
+            // 2. Persistimos (el buscador la agrega al confirmar) y, cada 'tamanioLote' filas, mandamos el lote a la BD
+            entityManager.persist(propiedad);
+            indiceBusqueda.indexar(propiedad);
+            importadas++;
+            vaciarSiCompletoLote(importadas);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Las páginas cacheadas del listado ya no incluyen todo el catálogo
+        cacheLecturas.invalidarPaginas();
+        return importadas;
+    }
+
+    /**
+     * Importa reservas en una sola transacción.
+     * Devuelve la cantidad de filas importadas.
+     */
+    @Transactional
+    public int importarReservas(List<ReservaImportada> filas) {
+        Set<Long> propiedadesAfectadas = new HashSet<>();
+        List<Estadia> estadias = new ArrayList<>(filas.size());
+        int importadas = 0;
+        for (ReservaImportada fila : filas) {
+            // 1. Validamos lo mínimo: el rango de fechas
+            if (fila.getFechaInicio() == null || fila.getFechaFin() == null
+                    || !fila.getFechaFin().isAfter(fila.getFechaInicio())) {
+                throw new IllegalArgumentException("Rango de fechas inválido en la fila " + importadas + ".");
+            }
+
+            // 2. Armamos la entidad con referencias (sin consultas)
+            Reserva reserva = new Reserva();
+            reserva.setFechaInicio(fila.getFechaInicio());
+            reserva.setFechaFin(fila.getFechaFin());
+            reserva.setPrecioTotal(fila.getPrecioTotal());
+            reserva.setNotas(fila.getNotas());
+            reserva.setPropiedad(entityManager.getReference(Propiedad.class, fila.getPropiedadId()));
+            reserva.setHuesped(entityManager.getReference(Usuario.class, fila.getHuespedId()));
+
+            // 3. Persistimos y, cada 'tamanioLote' filas, mandamos el lote a la BD
+            entityManager.persist(reserva);
+            propiedadesAfectadas.add(fila.getPropiedadId());
+            estadias.add(new Estadia(fila.getPropiedadId(), fila.getFechaInicio(), fila.getFechaFin(), fila.getPrecioTotal()));
+            importadas++;
+            vaciarSiCompletoLote(importadas);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // 4. Los calendarios en memoria de esas propiedades quedaron viejos: se recargan al consultarlos
+        propiedadesAfectadas.forEach(indiceDisponibilidad::descartarPropiedad);
+
+        // 5. El resumen de ocupación suma todas las importadas de una vez, antes del commit
+        eventos.publishEvent(new ReservasCreadas(estadias));
+        return importadas;
+    }
+
+    // --- Métodos Privados ---
+
+    private void vaciarSiCompletoLote(int filas) {
+        if (filas % tamanioLote == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.openlodge.service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.openlodge.dto.SugerenciaPropiedadDTO;
+import com.example.openlodge.dto.TextoDePropiedad;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.repository.PropiedadRepository;
+
+/**
+ * Índice de búsqueda por texto en memoria (un índice invertido).
+ *
+ * Parte el título, la descripción y la dirección de cada propiedad en términos
+ * (en minúsculas y sin tildes) y guarda, por cada término, qué propiedades lo
+ * tienen y con qué peso: pesa más estar en el título que en la dirección, y más
+ * en la dirección que en la descripción. Los términos están ordenados, así que
+ * buscar por prefijo ("caba" -> cabaña, cabañas...) es recorrer un rango del mapa:
+ * es lo que necesita el autocompletado.
+ *
+ * Se mantiene al día al crear, actualizar y borrar propiedades; igual que en el
+ * índice de disponibilidad, los cambios se aplican cuando la transacción confirma.
+ * Al arrancar se carga desde la BD en un hilo aparte, cuando la app ya está lista
+ * para recibir pedidos: mientras tanto estaListo() da false y las búsquedas van a la BD.
+ * Si la carga falla (por ejemplo, la BD todavía no responde) se reintenta cada vez
+ * más espaciado hasta que salga.
+ *
+ * Cada instancia de la app tiene su propio índice: lo que se cambie desde otra
+ * instancia se ve recién cuando este índice se vuelve a cargar.
+ */
+@Component
+public class IndiceBusqueda {
+
+    // Cuánto suma una palabra según el campo donde aparece
+    static final int PESO_TITULO = 3;
+    static final int PESO_DIRECCION = 2;
+    static final int PESO_DESCRIPCION = 1;
+
+    // Palabras demasiado comunes para buscar por ellas (no se indexan)
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "para", "por", "sin", "su", "un", "una", "y");
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Más relevante primero y, a igual relevancia, el de menor ID
+    private static final Comparator<Resultado> MEJOR_PRIMERO = Comparator.comparingInt(Resultado::puntaje).reversed()
+            .thenComparing(resultado -> resultado.documento().id());
+    private static final Pattern TILDES = Pattern.compile("\\p{M}+");
+
+    private final PropiedadRepository propiedadRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Espera antes del primer reintento de la carga inicial, y la máxima entre reintentos
+    private final Duration reintento;
+    private final Duration reintentoMaximo;
+
+    // término -> (propiedad -> peso)
+    private final ConcurrentNavigableMap<String, Map<Long, Integer>> terminos = new ConcurrentSkipListMap<>();
+    // propiedad -> sus términos y lo que se muestra de ella
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+
+    // Mientras se carga desde la BD: las propiedades que cambiaron en el medio.
+    // Lo que tiene el índice de ellas es más nuevo que lo que está leyendo la carga.
+    // Se escribe sólo con el candado del índice (synchronized)
+    private Set<Long> cambiadasDuranteLaCarga;
+    private volatile boolean listo;
+
+    @Autowired
+    public IndiceBusqueda(PropiedadRepository propiedadRepository, PlatformTransactionManager transactionManager,
+            @Value("${busqueda.indice.reintento:5s}") Duration reintento,
+            @Value("${busqueda.indice.reintento-maximo:5m}") Duration reintentoMaximo) {
+        this.propiedadRepository = propiedadRepository;
+        this.reintento = reintento;
+        this.reintentoMaximo = reintentoMaximo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Propiedades que tienen TODAS las palabras de la consulta, tomando cada una como
+     * prefijo ("caba pale" encuentra "Cabaña en Palermo"). Ordenadas por relevancia
+     * (la suma de los pesos) y, a igual relevancia, por ID.
+     *
+     * Una consulta de una letra puede coincidir con casi todas las propiedades: en vez
+     * de ordenarlas todas, se guardan sólo las 'limite' mejores en un montículo.
+     */
+    public List<SugerenciaPropiedadDTO> buscar(String consulta, int limite) {
+        List<String> palabras = palabrasDeConsulta(consulta);
+        if (palabras.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        // 1. De los términos de la palabra más selectiva salen los candidatos
+        String selectiva = masSelectiva(palabras);
+        Map<Long, Integer> candidatos = new HashMap<>();
+        for (Map<Long, Integer> propiedades : conPrefijo(terminos, selectiva).values()) {
+            propiedades.forEach((id, peso) -> candidatos.merge(id, peso, Math::max));
+        }
+
+        // 2. Las demás palabras sólo filtran: se buscan en los términos de cada candidato.
+        //    Nos quedamos con las 'limite' mejores; el montículo tiene la peor de ellas arriba
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(limite + 1, MEJOR_PRIMERO.reversed());
+        for (Map.Entry<Long, Integer> candidato : candidatos.entrySet()) {
+            Documento documento = documentos.get(candidato.getKey());
+            if (documento == null) {
+                continue; // se borró mientras buscábamos
+            }
+            int puntaje = candidato.getValue();
+            for (int i = 0; i < palabras.size() && puntaje > 0; i++) {
+                if (!palabras.get(i).equals(selectiva)) {
+                    int peso = documento.pesoConPrefijo(palabras.get(i));
+                    puntaje = peso == 0 ? 0 : puntaje + peso;
+                }
+            }
+            if (puntaje > 0) {
+                mejores.add(new Resultado(documento, puntaje));
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+        }
+
+        // 3. Los mejores primero (ya son a lo sumo 'limite')
+        return mejores.stream()
+                .sorted(MEJOR_PRIMERO)
+                .map(resultado -> new SugerenciaPropiedadDTO(resultado.documento().id(),
+                        resultado.documento().titulo(), resultado.documento().direccion()))
+                .toList();
+    }
+
+    /**
+     * Agrega (o reemplaza) una propiedad en el índice cuando la transacción actual confirme.
+     * Los textos se toman ahora, así que la propiedad ya tiene que tener su ID.
+     */
+    public void indexar(Propiedad propiedad) {
+        Documento documento = Documento.de(propiedad.getId(), propiedad.getTitulo(),
+                propiedad.getDescripcion(), propiedad.getDireccion());
+        Transacciones.alConfirmar(() -> aplicar(documento.id(), documento));
+    }
+
+    /**
+     * Quita una propiedad del índice cuando la transacción actual confirme.
+     */
+    public void quitar(Long propiedadId) {
+        Transacciones.alConfirmar(() -> aplicar(propiedadId, null));
+    }
+
+    /**
+     * Carga el índice en segundo plano cuando la app terminó de arrancar,
+     * para no demorar el momento en que empieza a atender pedidos. Si falla,
+     * reintenta duplicando la espera (hasta 'reintentoMaximo') hasta que se cargue.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        Thread hilo = new Thread(() -> {
+            Duration espera = reintento;
+            for (int intento = 1; !listo; intento++) {
+                try {
+                    long inicio = System.currentTimeMillis();
+                    int propiedades = cargar();
+                    System.out.println("Índice de búsqueda cargado: " + propiedades + " propiedades en "
+                            + (System.currentTimeMillis() - inicio) + " ms.");
+                    return;
+                } catch (RuntimeException e) {
+                    // Mientras tanto las búsquedas siguen yendo a la BD
+                    System.out.println("No se pudo cargar el índice de búsqueda (intento " + intento
+                            + "); se reintenta en " + espera.toSeconds() + " s.");
+                    e.printStackTrace();
+                }
+                try {
+                    Thread.sleep(espera.toMillis());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Duration doble = espera.multipliedBy(2);
+                espera = doble.compareTo(reintentoMaximo) < 0 ? doble : reintentoMaximo;
+            }
+        }, "indice-busqueda");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Arma el índice leyendo todas las propiedades de la BD (de a una fila) y
+     * descarta las que ya no existen. Devuelve la cantidad de propiedades leídas.
+     */
+    public int cargar() {
+        synchronized (this) {
+            cambiadasDuranteLaCarga = new HashSet<>();
+        }
+        Set<Long> leidas = new HashSet<>();
+        try {
+            // 1. Indexamos cada fila, salvo las que cambiaron después de que empezó la carga
+            transactionTemplate.executeWithoutResult(estado -> {
+                try (Stream<TextoDePropiedad> textos = propiedadRepository.streamTextos()) {
+                    textos.forEach(texto -> {
+                        Documento documento = Documento.de(texto.getId(), texto.getTitulo(),
+                                texto.getDescripcion(), texto.getDireccion());
+                        leidas.add(texto.getId());
+                        synchronized (this) {
+                            if (!cambiadasDuranteLaCarga.contains(texto.getId())) {
+                                reemplazar(texto.getId(), documento);
+                            }
+                        }
+                    });
+                }
+            });
+
+            // 2. Lo que el índice tenía de antes y ya no está en la BD, se va
+            synchronized (this) {
+                List<Long> borradas = documentos.keySet().stream()
+                        .filter(id -> !leidas.contains(id) && !cambiadasDuranteLaCarga.contains(id))
+                        .toList();
+                borradas.forEach(id -> reemplazar(id, null));
+                listo = true;
+            }
+            return leidas.size();
+        } finally {
+            synchronized (this) {
+                cambiadasDuranteLaCarga = null;
+            }
+        }
+    }
+
+    /**
+     * Indica si el índice ya se cargó desde la BD (antes de eso, puede estar incompleto)
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Cantidad de propiedades en el índice
+     */
+    public int cantidadPropiedades() {
+        return documentos.size();
+    }
+
+    /**
+     * Cantidad de términos distintos en el índice
+     */
+    public int cantidadTerminos() {
+        return terminos.size();
+    }
+
+    // --- Métodos Privados ---
+
+    private synchronized void aplicar(Long propiedadId, Documento nuevo) {
+        if (cambiadasDuranteLaCarga != null) {
+            cambiadasDuranteLaCarga.add(propiedadId);
+        }
+        reemplazar(propiedadId, nuevo);
+    }
+
+    // Cambia el documento de una propiedad (null = quitarla) y ajusta los términos.
+    // Se llama siempre con el candado del índice; las búsquedas no lo toman
+    private void reemplazar(Long propiedadId, Documento nuevo) {
+        Documento viejo = nuevo == null ? documentos.remove(propiedadId) : documentos.put(propiedadId, nuevo);
+
+        // 1. Sacamos la propiedad de los términos que ya no tiene (y borramos los que quedan vacíos)
+        if (viejo != null) {
+            for (String termino : viejo.terminos().keySet()) {
+                if (nuevo == null || !nuevo.terminos().containsKey(termino)) {
+                    terminos.computeIfPresent(termino, (clave, propiedades) -> {
+                        propiedades.remove(propiedadId);
+                        return propiedades.isEmpty() ? null : propiedades;
+                    });
+                }
+            }
+        }
+
+        // 2. La agregamos (o actualizamos el peso) en los que tiene ahora
+        if (nuevo != null) {
+            nuevo.terminos().forEach((termino, peso) ->
+                    terminos.computeIfAbsent(termino, clave -> new ConcurrentHashMap<>()).put(propiedadId, peso));
+        }
+    }
+
+    // La palabra cuyos términos aparecen en menos propiedades (a igual cantidad, la más
+    // larga). Deja de contar una palabra apenas supera a la mejor hasta ahora, así que
+    // una letra suelta ("c") no obliga a recorrer todo su rango
+    private String masSelectiva(List<String> palabras) {
+        String mejor = palabras.get(0);
+        long menos = Long.MAX_VALUE;
+        for (String palabra : palabras) {
+            long apariciones = 0;
+            for (Map<Long, Integer> propiedades : conPrefijo(terminos, palabra).values()) {
+                apariciones += propiedades.size();
+                if (apariciones >= menos) {
+                    break;
+                }
+            }
+            if (apariciones < menos) {
+                menos = apariciones;
+                mejor = palabra;
+            }
+        }
+        return mejor;
+    }
+
+    // Las palabras de la consulta, de la más larga a la más corta. Las palabras vacías
+    // se ignoran, salvo la última: puede ser el principio de otra ("de" -> "departamento")
+    private static List<String> palabrasDeConsulta(String consulta) {
+        List<String> todas = terminosDe(consulta);
+        List<String> palabras = new ArrayList<>();
+        for (int i = 0; i < todas.size(); i++) {
+            String palabra = todas.get(i);
+            boolean ultima = i == todas.size() - 1;
+            if ((ultima || !PALABRAS_VACIAS.contains(palabra)) && !palabras.contains(palabra)) {
+                palabras.add(palabra);
+            }
+        }
+        palabras.sort(Comparator.comparingInt(String::length).reversed());
+        return palabras;
+    }
+
+    // "Cabaña en el Río!" -> [cabana, en, el, rio]
+    private static List<String> terminosDe(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String sinTildes = TILDES.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARADORES.split(sinTildes.toLowerCase(Locale.ROOT)))
+                .filter(termino -> !termino.isEmpty())
+                .toList();
+    }
+
+    // Los términos que empiezan con 'prefijo' (un rango del mapa ordenado)
+    private static <V> NavigableMap<String, V> conPrefijo(NavigableMap<String, V> mapa, String prefijo) {
+        return mapa.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Lo que el índice guarda de una propiedad: sus términos (cada uno con el peso
+     * del campo más importante donde aparece) y lo que se muestra en las sugerencias.
+     * No se modifica después de creado.
+     */
+    private record Documento(Long id, String titulo, String direccion, NavigableMap<String, Integer> terminos) {
+
+        static Documento de(Long id, String titulo, String descripcion, String direccion) {
+            NavigableMap<String, Integer> terminos = new TreeMap<>();
+            agregar(terminos, descripcion, PESO_DESCRIPCION);
+            agregar(terminos, direccion, PESO_DIRECCION);
+            agregar(terminos, titulo, PESO_TITULO);
+            return new Documento(id, titulo, direccion, terminos);
+        }
+
+        private static void agregar(NavigableMap<String, Integer> terminos, String texto, int peso) {
+            for (String termino : terminosDe(texto)) {
+                if (!PALABRAS_VACIAS.contains(termino)) {
+                    terminos.merge(termino, peso, Math::max);
+                }
+            }
+        }
+
+        // El mayor peso entre los términos que empiezan con 'prefijo' (0 si no hay ninguno)
+        int pesoConPrefijo(String prefijo) {
+            int peso = 0;
+            for (int valor : conPrefijo(terminos, prefijo).values()) {
+                peso = Math.max(peso, valor);
+            }
+            return peso;
+        }
+    }
+
+    private record Resultado(Documento documento, int puntaje) {
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.openlodge.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.openlodge.dto.RangoReserva;
+import com.example.openlodge.dto.RangoReservaDePropiedad;
+import com.example.openlodge.repository.ReservaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Índice de disponibilidad en memoria.
+ *
+ * Guarda, por cada propiedad, los rangos ocupados ordenados por fecha de inicio
+ * (un TreeMap inicio -> fin). Así podemos responder "¿se superpone?" sin ir a la BD.
+ *
+ * El calendario de cada propiedad se carga la primera vez que se consulta
+ * (sólo las reservas que todavía no terminaron) y se mantiene al día cuando
+ * se crean o cancelan reservas. Hay un tope de calendarios en memoria y los
+ * que no se consultan por un tiempo se descartan: se vuelven a cargar si hacen falta. Los cambios se aplican recién cuando la
+ * transacción confirma (commit), para no "ver" reservas que después se deshacen.
+ *
+ * Además guarda, por (propiedad, mes), qué noches están ocupadas como un mapa
+ * de bits (un int: el bit 0 es la noche del día 1). Es lo que usa el calendario
+ * de disponibilidad; se invalida junto con el índice cuando cambian las reservas.
+ *
+ * El índice puede equivocarse para los dos lados: falsos "libre" (otra instancia
+ * de la app reservó) y falsos "ocupado" (otra instancia canceló, una cancelación
+ * ya confirmada todavía no se aplicó aquí, o el calendario se cargó justo antes de
+ * un borrado). Por eso sirve para mostrar disponibilidad y para las métricas, pero
+ * el camino de escritura decide siempre contra la BD, para los dos lados.
+ */
+@Component
+public class IndiceDisponibilidad {
+    private final ReservaRepository reservaRepository;
+    private final Cache<Long, CalendarioPropiedad> calendarios;
+    private final Cache<MesDePropiedad, Integer> meses;
+
+    // Para las métricas: cuántas consultas hubo y cuántas tuvieron que cargar el calendario de la BD
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder cargas = new LongAdder();
+
+    @Autowired
+    public IndiceDisponibilidad(ReservaRepository reservaRepository,
+            @Value("${cache.disponibilidad.max-meses:10000}") long maxMeses,
+            @Value("${cache.disponibilidad.ttl:10m}") Duration ttlMeses,
+            @Value("${cache.disponibilidad.max-propiedades:10000}") long maxPropiedades,
+            @Value("${cache.disponibilidad.inactividad:30m}") Duration inactividad) {
+        this.reservaRepository = reservaRepository;
+        this.calendarios = Caffeine.newBuilder()
+                .maximumSize(maxPropiedades)
+                .expireAfterAccess(inactividad)
+                .build();
+        this.meses = Caffeine.newBuilder()
+                .maximumSize(maxMeses)
+                .expireAfterWrite(ttlMeses)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Indica si el rango [fechaInicio, fechaFin) se superpone con alguna reserva
+     * conocida de la propiedad.
+     */
+    public boolean haySuperposicion(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin) {
+        consultas.increment();
+        CalendarioPropiedad calendario = obtenerCalendario(propiedadId);
+
+        // Las fechas anteriores a la carga del calendario no están en memoria:
+        // para esos casos (raros) preguntamos directamente a la BD
+        if (fechaInicio.isBefore(calendario.cargadoDesde)) {
+            return reservaRepository.existsOverlappingReserva(propiedadId, fechaInicio, fechaFin);
+        }
+        return calendario.haySuperposicion(fechaInicio, fechaFin);
+    }
+
+    /**
+     * Noches ocupadas de un mes como mapa de bits: el bit (d - 1) está prendido
+     * si la noche del día d está reservada.
+     *
+     * Si el mes empieza después de la carga del calendario se arma desde memoria;
+     * si no (meses pasados o el mes en curso), con una consulta que trae sólo las fechas.
+     */
+    public int nochesOcupadasDelMes(Long propiedadId, YearMonth mes) {
+        return meses.get(new MesDePropiedad(propiedadId, mes), clave -> calcularMes(propiedadId, mes));
+    }
+
+    /**
+     * Agrega un rango ocupado al índice cuando la transacción actual confirme.
+     */
+    public void registrarReserva(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin) {
+        Transacciones.alConfirmar(() -> {
+            CalendarioPropiedad calendario = calendarios.getIfPresent(propiedadId);
+            if (calendario != null) {
+                calendario.ocupar(fechaInicio, fechaFin);
+            }
+            invalidarMeses(propiedadId, fechaInicio, fechaFin);
+        });
+    }
+
+    /**
+     * Quita un rango ocupado del índice cuando la transacción actual confirme.
+     */
+    public void liberarReserva(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin) {
+        Transacciones.alConfirmar(() -> {
+            CalendarioPropiedad calendario = calendarios.getIfPresent(propiedadId);
+            if (calendario != null) {
+                calendario.liberar(fechaInicio, fechaFin);
+            }
+            invalidarMeses(propiedadId, fechaInicio, fechaFin);
+        });
+    }
+
+    /**
+     * Olvida el calendario de una propiedad (por ejemplo, porque se borró).
+     */
+    public void descartarPropiedad(Long propiedadId) {
+        Transacciones.alConfirmar(() -> {
+            calendarios.invalidate(propiedadId);
+            meses.asMap().keySet().removeIf(clave -> clave.propiedadId().equals(propiedadId));
+        });
+    }
+
+    /**
+     * Cantidad de propiedades con su calendario en memoria
+     */
+    public long cantidadPropiedades() {
+        return calendarios.estimatedSize();
+    }
+
+    /**
+     * Proporción de consultas respondidas con un calendario que ya estaba en memoria (0 a 1)
+     */
+    public double tasaDeAciertos() {
+        long total = consultas.sum();
+        return total == 0 ? 0.0 : (double) (total - cargas.sum()) / total;
+    }
+
+    public Cache<MesDePropiedad, Integer> getMeses() {
+        return meses;
+    }
+
+    // --- Métodos Privados ---
+
+    private int calcularMes(Long propiedadId, YearMonth mes) {
+        LocalDate desde = mes.atDay(1);
+        LocalDate hasta = mes.plusMonths(1).atDay(1);
+        int noches = 0;
+
+        // 1. De memoria, si el calendario cubre el mes completo
+        CalendarioPropiedad calendario = obtenerCalendario(propiedadId);
+        if (!desde.isBefore(calendario.cargadoDesde)) {
+            for (Map.Entry<LocalDate, LocalDate> rango : calendario.rangosEnVentana(desde, hasta)) {
+                noches |= bitsDelRango(rango.getKey(), rango.getValue(), desde, hasta);
+            }
+            return noches;
+        }
+
+        // 2. Si no, de la BD (sólo las fechas, no las entidades)
+        for (RangoReservaDePropiedad rango : reservaRepository.findRangosEnVentana(List.of(propiedadId), desde, hasta)) {
+            noches |= bitsDelRango(rango.getFechaInicio(), rango.getFechaFin(), desde, hasta);
+        }
+        return noches;
+    }
+
+    // Prende los bits de las noches de [fechaInicio, fechaFin) que caen dentro del mes [desde, hasta)
+    private static int bitsDelRango(LocalDate fechaInicio, LocalDate fechaFin, LocalDate desde, LocalDate hasta) {
+        int primera = fechaInicio.isAfter(desde) ? fechaInicio.getDayOfMonth() - 1 : 0;
+        int ultima = fechaFin.isBefore(hasta) ? fechaFin.getDayOfMonth() - 1 : desde.lengthOfMonth();
+        int bits = 0;
+        for (int dia = primera; dia < ultima; dia++) {
+            bits |= 1 << dia;
+        }
+        return bits;
+    }
+
+    // Descarta los meses cacheados que toca el rango [fechaInicio, fechaFin)
+    private void invalidarMeses(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin) {
+        YearMonth ultimo = YearMonth.from(fechaFin.minusDays(1));
+        for (YearMonth mes = YearMonth.from(fechaInicio); !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+            meses.invalidate(new MesDePropiedad(propiedadId, mes));
+        }
+    }
+
+    private CalendarioPropiedad obtenerCalendario(Long propiedadId) {
+        // get sólo crea el calendario vacío (sin I/O): la consulta a la BD se hace
+        // afuera, con el candado del calendario. Así no bloqueamos la caché durante
+        // la consulta (ni fijamos el hilo portador si corremos con hilos virtuales).
+        // Si Caffeine descarta un calendario mientras alguien lo usa, ese hilo
+        // termina con su copia; el próximo crea otro y lo carga de la BD
+        CalendarioPropiedad calendario = calendarios.get(propiedadId, id -> new CalendarioPropiedad());
+        calendario.cargarSiHaceFalta(() -> {
+            cargas.increment();
+            LocalDate hoy = LocalDate.now();
+            calendario.cargadoDesde = hoy;
+            for (RangoReserva rango : reservaRepository.findRangosByPropiedadId(propiedadId, hoy)) {
+                calendario.ocuparSinCandado(rango.getFechaInicio(), rango.getFechaFin());
+            }
+        });
+        return calendario;
+    }
+
+    /**
+     * Rangos ocupados de una propiedad, ordenados por fecha de inicio.
+     *
+     * Usamos un ReentrantLock en vez de 'synchronized' porque la carga inicial
+     * consulta la BD con el candado tomado: un hilo virtual bloqueado dentro
+     * de un 'synchronized' se queda pegado a su hilo portador (Java 21).
+     * Mientras se carga, los registrar/liberar que lleguen esperan el candado,
+     * así ninguno se pierde ni queda pisado por la carga.
+     */
+    private static final class CalendarioPropiedad {
+        private final ReentrantLock candado = new ReentrantLock();
+        private final TreeMap<LocalDate, LocalDate> ocupados = new TreeMap<>();
+        // Se fija al cargar; se lee siempre después de cargarSiHaceFalta (mismo candado)
+        private volatile LocalDate cargadoDesde;
+        private boolean cargado;
+
+        void cargarSiHaceFalta(Runnable carga) {
+            candado.lock();
+            try {
+                if (!cargado) {
+                    carga.run();
+                    cargado = true;
+                }
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        // Copia de los rangos que tocan la ventana [desde, hasta)
+        List<Map.Entry<LocalDate, LocalDate>> rangosEnVentana(LocalDate desde, LocalDate hasta) {
+            candado.lock();
+            try {
+                // El rango que empieza antes de 'desde' puede seguir ocupando noches de la ventana
+                LocalDate primero = ocupados.floorKey(desde);
+                List<Map.Entry<LocalDate, LocalDate>> rangos = new ArrayList<>();
+                for (Map.Entry<LocalDate, LocalDate> rango
+                        : ocupados.subMap(primero != null ? primero : desde, true, hasta, false).entrySet()) {
+                    if (rango.getValue().isAfter(desde)) {
+                        rangos.add(Map.entry(rango.getKey(), rango.getValue()));
+                    }
+                }
+                return rangos;
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        boolean haySuperposicion(LocalDate fechaInicio, LocalDate fechaFin) {
+            candado.lock();
+            try {
+                // Como los rangos no se pisan entre sí, el último que empieza antes
+                // de 'fechaFin' es el único candidato a superponerse
+                Map.Entry<LocalDate, LocalDate> anterior = ocupados.lowerEntry(fechaFin);
+                return anterior != null && anterior.getValue().isAfter(fechaInicio);
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        void ocupar(LocalDate fechaInicio, LocalDate fechaFin) {
+            candado.lock();
+            try {
+                ocuparSinCandado(fechaInicio, fechaFin);
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        void liberar(LocalDate fechaInicio, LocalDate fechaFin) {
+            candado.lock();
+            try {
+                ocupados.remove(fechaInicio, fechaFin);
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        // Sólo para usar con el candado ya tomado
+        private void ocuparSinCandado(LocalDate fechaInicio, LocalDate fechaFin) {
+            ocupados.merge(fechaInicio, fechaFin, (actual, nuevo) -> actual.isAfter(nuevo) ? actual : nuevo);
+        }
+    }
+
+    /**
+     * Clave de la caché de meses
+     */
+    public record MesDePropiedad(Long propiedadId, YearMonth mes) {
+    }
+}
@@ -1,91 +1,58 @@
 package com.example.openlodge.service;
 
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
 @Service
 public class JwtService {
-    // Inyectamos los valores desde application.properties
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    // La clave y el parser se arman UNA sola vez al arrancar.
+    // El JwtParser es inmutable y se puede compartir entre hilos.
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long expirationTime;
 
-    @Value("${jwt.expiration}")
-    private long EXPIRATION_TIME;
+    // Inyectamos los valores desde application.properties
+    @Autowired
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+            @Value("${jwt.expiration}") long expirationTime) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expirationTime = expirationTime;
+    }
 
     // --- Métodos Públicos Principales ---
     /**
      * Genera un token JWT para un usuario.
      */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
-    }
-
-    /**
-     * Valida si un token es correcto (pertenece al usuario y no ha expirado)
-     */
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    /**
-     * Extrae el "username" (nuestro email) del token
-     */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    // --- Métodos Privados ---
-
-    private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        long ahora = System.currentTimeMillis();
         return Jwts.builder()
-                .claims(extraClaims)
                 .subject(userDetails.getUsername()) // Guardamos el email aquí
-                .issuedAt(new Date(System.currentTimeMillis())) // Funciona con java.util.Date
-                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME)) // Funciona con java.util.Date
-
-                .signWith(getSigningKey()) // Ya no pasamos SignatureAlgorithm.HS256
-
+                .issuedAt(new Date(ahora)) // Funciona con java.util.Date
+                .expiration(new Date(ahora + expirationTime)) // Funciona con java.util.Date
+                .signWith(signingKey) // Ya no pasamos SignatureAlgorithm.HS256
                 .compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // Obtiene la SecretKey (en formato de objeto) a partir del string de properties
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Valida el token (firma Y expiración) con UN solo parseo
+     * y devuelve sus claims (subject = email, expiration, etc.)
+     *
+     * Lanza JwtException si el token es inválido, está mal formado o expiró.
+     */
+    public Claims validarToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,234 @@
+package com.example.openlodge.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.openlodge.dto.CandidatoCotizacion;
+import com.example.openlodge.dto.CotizacionDTO;
+import com.example.openlodge.dto.CotizacionDTO.Estado;
+import com.example.openlodge.dto.PrecioDePropiedad;
+import com.example.openlodge.dto.ServicioDePropiedad;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Motor de precios: calcula el precio de una estadía del lado del servidor
+ * (el precioTotal que manda el cliente ya no se usa).
+ *
+ * precioTotal = precioPorNoche x noches + la suma de los 'costo' de los servicios
+ * elegidos (cada servicio se cobra una vez por estadía y tiene que ofrecerlo la propiedad).
+ *
+ * Cada propiedad tiene su tabla de tarifas en memoria (precio por noche y costo de
+ * cada servicio que ofrece, en centavos para que las sumas sean exactas). Las tablas
+ * que faltan se cargan de a muchas juntas (dos consultas para todo un lote) y se
+ * descartan cuando la propiedad cambia, recién al confirmar la transacción.
+ *
+ * Una carga en lote no es atómica contra esos descartes: si leyó el precio viejo
+ * justo antes de que se confirmara el cambio, lo guardaría después del descarte y
+ * quedaría en memoria hasta que venza. Por eso cada descarte suma uno a 'generacion'
+ * y la carga, después de guardar lo que leyó, vuelve a mirarla: si cambió en el
+ * medio, descarta sus tablas (la próxima cotización las lee de nuevo).
+ */
+@Service
+public class MotorPrecios {
+    private final PropiedadRepository propiedadRepository;
+    private final Cache<Long, TarifaPropiedad> tarifas;
+    // Cuántas tablas se descartaron desde que arrancó (ver más arriba)
+    private final AtomicLong generacion = new AtomicLong();
+    // Máximo de candidatos por cotización masiva
+    private final int maxCandidatos;
+
+    @Autowired
+    public MotorPrecios(PropiedadRepository propiedadRepository,
+            @Value("${precios.tarifas.max-propiedades:100000}") long maxPropiedades,
+            @Value("${precios.tarifas.ttl:1h}") Duration ttl,
+            @Value("${precios.cotizaciones.max-candidatos:500}") int maxCandidatos) {
+        this.propiedadRepository = propiedadRepository;
+        this.maxCandidatos = maxCandidatos;
+        this.tarifas = Caffeine.newBuilder()
+                .maximumSize(maxPropiedades)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Precio de una estadía en [fechaInicio, fechaFin) con los servicios elegidos.
+     * EntityNotFoundException si la propiedad no existe; IllegalArgumentException
+     * si las fechas no son válidas o la propiedad no ofrece algún servicio.
+     */
+    public Cotizacion cotizar(Long propiedadId, LocalDate fechaInicio, LocalDate fechaFin, Collection<Long> servicioIds) {
+        TarifaPropiedad tarifa = tarifas(List.of(propiedadId)).get(propiedadId);
+        if (tarifa == null) {
+            throw new EntityNotFoundException("Propiedad no encontrada con ID: " + propiedadId);
+        }
+        return tarifa.cotizar(fechaInicio, fechaFin, servicioIds);
+    }
+
+    /**
+     * Cotiza muchos candidatos de una vez (hasta 'precios.cotizaciones.max-candidatos').
+     * Un candidato inválido no corta el resto: sale con su estado y mensaje.
+     */
+    public List<CotizacionDTO> cotizarVarios(List<CandidatoCotizacion> candidatos) {
+        if (candidatos == null || candidatos.isEmpty() || candidatos.size() > maxCandidatos) {
+            throw new IllegalArgumentException("Hay que cotizar entre 1 y " + maxCandidatos + " candidatos.");
+        }
+
+        // 1. Las tablas de todas las propiedades pedidas, cargando las que falten en un solo viaje
+        Set<Long> propiedadIds = candidatos.stream()
+                .map(CandidatoCotizacion::getPropiedadId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, TarifaPropiedad> tarifasPedidas = tarifas(propiedadIds);
+
+        // 2. Cada candidato contra su tabla, en memoria (son unas pocas sumas: no vale la pena paralelizar)
+        List<CotizacionDTO> resultados = new ArrayList<>(candidatos.size());
+        for (int i = 0; i < candidatos.size(); i++) {
+            CandidatoCotizacion candidato = candidatos.get(i);
+            CotizacionDTO resultado = new CotizacionDTO(i, candidato.getPropiedadId(),
+                    candidato.getFechaInicio(), candidato.getFechaFin(), null, null, null, null, null, null);
+            resultados.add(resultado);
+
+            TarifaPropiedad tarifa = tarifasPedidas.get(candidato.getPropiedadId());
+            if (tarifa == null) {
+                resultado.setEstado(Estado.NO_ENCONTRADA);
+                resultado.setMensaje("Propiedad no encontrada con ID: " + candidato.getPropiedadId());
+                continue;
+            }
+            try {
+                Cotizacion cotizacion = tarifa.cotizar(candidato.getFechaInicio(), candidato.getFechaFin(),
+                        candidato.getServicioIds());
+                resultado.setEstado(Estado.COTIZADA);
+                resultado.setNoches(cotizacion.noches());
+                resultado.setPrecioNoches(cotizacion.precioNoches());
+                resultado.setPrecioServicios(cotizacion.precioServicios());
+                resultado.setPrecioTotal(cotizacion.precioTotal());
+            } catch (IllegalArgumentException e) {
+                resultado.setEstado(Estado.INVALIDA);
+                resultado.setMensaje(e.getMessage());
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Las tablas de tarifas de varias propiedades; las que no están en memoria se cargan
+     * todas juntas. Las propiedades que no existen no aparecen en el resultado.
+     */
+    public Map<Long, TarifaPropiedad> tarifas(Collection<Long> propiedadIds) {
+        // 1. Las que ya están en memoria
+        Map<Long, TarifaPropiedad> encontradas = new HashMap<>(tarifas.getAllPresent(propiedadIds));
+        Set<Long> faltan = new HashSet<>(propiedadIds);
+        faltan.removeAll(encontradas.keySet());
+        if (faltan.isEmpty()) {
+            return encontradas;
+        }
+
+        // 2. Las demás, todas juntas. Se guardan ANTES de volver a mirar la generación:
+        //    un descarte que llegue después del put las borra él mismo
+        long antes = generacion.get();
+        Map<Long, TarifaPropiedad> cargadas = cargarTarifas(faltan);
+        tarifas.putAll(cargadas);
+        if (generacion.get() != antes) {
+            tarifas.invalidateAll(cargadas.keySet());
+        }
+        encontradas.putAll(cargadas);
+        return encontradas;
+    }
+
+    /**
+     * Descarta la tabla de una propiedad (cambió su precio o sus servicios)
+     * cuando la transacción actual confirme
+     */
+    public void invalidarPropiedad(Long propiedadId) {
+        Transacciones.alConfirmar(() -> {
+            generacion.incrementAndGet();
+            tarifas.invalidate(propiedadId);
+        });
+    }
+
+    public Cache<Long, TarifaPropiedad> getTarifas() {
+        return tarifas;
+    }
+
+    // --- Métodos Privados ---
+
+    // Dos consultas para todas las propiedades: precios por noche y servicios con su costo
+    private Map<Long, TarifaPropiedad> cargarTarifas(Set<Long> propiedadIds) {
+        Map<Long, Map<Long, Long>> serviciosPorPropiedad = new HashMap<>();
+        for (ServicioDePropiedad servicio : propiedadRepository.findServiciosDePropiedades(List.copyOf(propiedadIds))) {
+            serviciosPorPropiedad.computeIfAbsent(servicio.getPropiedadId(), id -> new HashMap<>())
+                    .put(servicio.getServicioId(), aCentavos(servicio.getCosto()));
+        }
+
+        Map<Long, TarifaPropiedad> cargadas = new HashMap<>();
+        for (PrecioDePropiedad precio : propiedadRepository.findPreciosDePropiedades(List.copyOf(propiedadIds))) {
+            cargadas.put(precio.getPropiedadId(), new TarifaPropiedad(aCentavos(precio.getPrecioPorNoche()),
+                    Map.copyOf(serviciosPorPropiedad.getOrDefault(precio.getPropiedadId(), Map.of()))));
+        }
+        return cargadas;
+    }
+
+    private static long aCentavos(Double importe) {
+        return importe == null ? 0 : Math.round(importe * 100);
+    }
+
+    private static double aImporte(long centavos) {
+        return centavos / 100.0;
+    }
+
+    /**
+     * Tabla de tarifas de una propiedad: precio por noche y costo de cada servicio
+     * que ofrece (servicioId -> costo), todo en centavos
+     */
+    public record TarifaPropiedad(long centavosPorNoche, Map<Long, Long> centavosPorServicio) {
+
+        public Cotizacion cotizar(LocalDate fechaInicio, LocalDate fechaFin, Collection<Long> servicioIds) {
+            if (fechaInicio == null || fechaFin == null || !fechaFin.isAfter(fechaInicio)) {
+                throw new IllegalArgumentException("Faltan las fechas o la fecha de fin no es posterior a la de inicio.");
+            }
+            long noches = ChronoUnit.DAYS.between(fechaInicio, fechaFin);
+
+            // Cada servicio se cobra una vez, aunque venga repetido
+            long centavosServicios = 0;
+            if (servicioIds != null) {
+                for (Long servicioId : new LinkedHashSet<>(servicioIds)) {
+                    Long costo = centavosPorServicio.get(servicioId);
+                    if (costo == null) {
+                        throw new IllegalArgumentException("La propiedad no ofrece el servicio con ID: " + servicioId);
+                    }
+                    centavosServicios += costo;
+                }
+            }
+
+            long centavosNoches = centavosPorNoche * noches;
+            return new Cotizacion((int) noches, aImporte(centavosNoches), aImporte(centavosServicios),
+                    aImporte(centavosNoches + centavosServicios));
+        }
+    }
+
+    /**
+     * El precio de una estadía, desglosado
+     */
+    public record Cotizacion(int noches, double precioNoches, double precioServicios, double precioTotal) {
+    }
+}
@@ -1,17 +1,37 @@
 package com.example.openlodge.service;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.openlodge.dto.DisponibilidadDTO;
+import com.example.openlodge.dto.FiltroBusqueda;
+import com.example.openlodge.dto.PropiedadDTO;
+import com.example.openlodge.dto.PropiedadResumenDTO;
+import com.example.openlodge.dto.ServicioDTO;
+import com.example.openlodge.dto.ServicioDePropiedad;
+import com.example.openlodge.dto.ServicioIdDePropiedad;
+import com.example.openlodge.dto.SugerenciaPropiedadDTO;
 import com.example.openlodge.model.Propiedad;
 import com.example.openlodge.model.Servicio;
 import com.example.openlodge.model.Usuario;
@@ -19,39 +39,253 @@ import com.example.openlodge.repository.PropiedadRepository;
 import com.example.openlodge.repository.ReservaRepository;
 import com.example.openlodge.repository.ServicioRepository;
 import com.example.openlodge.repository.UsuarioRepository;
+import com.example.openlodge.service.CacheLecturasService.PaginaCacheada;
+import com.example.openlodge.service.CacheLecturasService.RespuestaCacheada;
 
 @Service
 public class PropiedadService {
 
+    // Tamaño máximo de página para los listados públicos
+    public static final int LIMITE_MAXIMO = 100;
+
+    // Largo máximo de la ventana que se puede pedir al calendario de disponibilidad
+    public static final int DIAS_MAXIMOS_DISPONIBILIDAD = 366;
+
+    // Largo máximo del texto que se puede buscar en las sugerencias
+    public static final int LARGO_MAXIMO_CONSULTA = 100;
+
     private final PropiedadRepository propiedadRepository;
     private final UsuarioRepository usuarioRepository;
     private final ServicioRepository servicioRepository;
     private final ReservaRepository reservaRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final IndiceBusqueda indiceBusqueda;
+    private final CacheLecturasService cacheLecturas;
+    private final MotorPrecios motorPrecios;
+    private final EntityManager entityManager;
 
     @Autowired
     public PropiedadService(PropiedadRepository propiedadRepository, UsuarioRepository usuarioRepository,
-            ServicioRepository servicioRepository, ReservaRepository reservaRepository) {
+            ServicioRepository servicioRepository, ReservaRepository reservaRepository,
+            IndiceDisponibilidad indiceDisponibilidad, IndiceBusqueda indiceBusqueda, CacheLecturasService cacheLecturas,
+            MotorPrecios motorPrecios, EntityManager entityManager) {
         this.propiedadRepository = propiedadRepository;
         this.usuarioRepository = usuarioRepository;
         this.servicioRepository = servicioRepository;
         this.reservaRepository = reservaRepository;
+        this.indiceDisponibilidad = indiceDisponibilidad;
+        this.indiceBusqueda = indiceBusqueda;
+        this.cacheLecturas = cacheLecturas;
+        this.motorPrecios = motorPrecios;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Devuelve una página de propiedades ordenadas por ID.
+     * 'despuesDeId' es el cursor: el último ID que recibió el cliente (null = desde el principio).
+     */
+    @Transactional(readOnly = true)
+    public List<PropiedadDTO> obtenerTodasLasPropiedades(Long despuesDeId, int limite) {
+        long cursor = despuesDeId == null ? 0L : despuesDeId;
+        return aDTOs(propiedadRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(acotarLimite(limite))));
+    }
+
+    /**
+     * Igual que obtenerTodasLasPropiedades, pero en la vista resumen (una consulta
+     * de pocas columnas más una con los IDs de los servicios)
+     */
+    @Transactional(readOnly = true)
+    public List<PropiedadResumenDTO> obtenerResumenes(Long despuesDeId, int limite) {
+        long cursor = despuesDeId == null ? 0L : despuesDeId;
+        return conServicioIds(propiedadRepository.findResumenesDespuesDe(cursor, Limit.of(acotarLimite(limite))));
+    }
+
+    /**
+     * Una página del listado ya serializada (desde la caché si nadie cambió
+     * propiedades desde que se armó), con el cursor de la página siguiente.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCacheada obtenerPaginaCacheada(Long despuesDeId, int limite, boolean resumen) {
+        int tamanio = acotarLimite(limite);
+        String clave = (resumen ? "resumen" : "completa") + "|" + despuesDeId + "|" + tamanio;
+        return cacheLecturas.paginaPropiedades(clave, () -> {
+            List<Long> ids;
+            List<?> elementos;
+            if (resumen) {
+                List<PropiedadResumenDTO> pagina = obtenerResumenes(despuesDeId, tamanio);
+                ids = pagina.stream().map(PropiedadResumenDTO::getId).toList();
+                elementos = pagina;
+            } else {
+                List<PropiedadDTO> pagina = obtenerTodasLasPropiedades(despuesDeId, tamanio);
+                ids = pagina.stream().map(PropiedadDTO::getId).toList();
+                elementos = pagina;
+            }
+            // Si la página vino llena, puede haber más: el último ID es el cursor
+            Long siguiente = ids.size() == tamanio ? ids.get(ids.size() - 1) : null;
+            return new CacheLecturasService.Pagina(elementos, siguiente);
+        });
+    }
+
+    /**
+     * Busca propiedades libres y que cumplan los filtros (una página por vez).
+     */
+    @Transactional(readOnly = true)
+    public List<PropiedadDTO> buscarPropiedades(FiltroBusqueda filtro, Long despuesDeId, int limite) {
+
+        // 1. Validamos el rango de fechas (o vienen las dos, o ninguna)
+        if ((filtro.getFechaInicio() == null) != (filtro.getFechaFin() == null)) {
+            throw new IllegalArgumentException("Para filtrar por fechas hay que indicar fechaInicio y fechaFin.");
+        }
+        if (filtro.getFechaInicio() != null && !filtro.getFechaFin().isAfter(filtro.getFechaInicio())) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio.");
+        }
+
+        // 2. Servicios requeridos (sin repetidos). Si no hay, mandamos una lista "dummy"
+        //    porque "IN ()" vacío no es SQL válido; la consulta lo ignora con cantidadServicios = 0
+        List<Long> servicioIds = filtro.getServicios() == null
+                ? List.of()
+                : filtro.getServicios().stream().distinct().toList();
+
+        long cursor = despuesDeId == null ? 0L : despuesDeId;
+        return aDTOs(propiedadRepository.buscar(
+                cursor,
+                filtro.getHuespedes(),
+                filtro.getPrecioMin(),
+                filtro.getPrecioMax(),
+                filtro.getFechaInicio(),
+                filtro.getFechaFin(),
+                servicioIds.isEmpty() ? List.of(-1L) : servicioIds,
+                servicioIds.size(),
+                Limit.of(acotarLimite(limite))));
     }
 
-    // ... (obtenerTodasLasPropiedades y obtenerPropiedadPorId quedan igual) ...
-    public List<Propiedad> obtenerTodasLasPropiedades() {
-        return propiedadRepository.findAll();
+    /**
+     * Sugerencias mientras el huésped escribe: propiedades cuyo título, descripción o
+     * dirección tienen todas las palabras de la consulta (la última puede estar a medio
+     * escribir). Salen del índice de búsqueda en memoria; si todavía se está cargando,
+     * de un LIKE sobre el título y la dirección.
+     */
+    public List<SugerenciaPropiedadDTO> sugerirPropiedades(String consulta, int limite) {
+        if (consulta == null || consulta.isBlank()) {
+            return List.of();
+        }
+        if (consulta.length() > LARGO_MAXIMO_CONSULTA) {
+            throw new IllegalArgumentException("La búsqueda no puede tener más de " + LARGO_MAXIMO_CONSULTA + " caracteres.");
+        }
+        if (indiceBusqueda.estaListo()) {
+            return indiceBusqueda.buscar(consulta, acotarLimite(limite));
+        }
+        String patron = "%" + consulta.trim().toLowerCase()
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return propiedadRepository.findSugerencias(patron, Limit.of(acotarLimite(limite)));
     }
 
-    public Optional<Propiedad> obtenerPropiedadPorId(Long id) {
-        return propiedadRepository.findById(id);
+    /**
+     * Lleva el tamaño de página pedido al rango [1, LIMITE_MAXIMO]
+     */
+    public static int acotarLimite(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
     }
 
-    public List<Propiedad> obtenerPropiedadesPorAnfitrion(Long anfitrionId) {
-        return propiedadRepository.findByAnfitrionId(anfitrionId);
+    /**
+     * Recorre todo el catálogo con un cursor de la BD y le pasa cada propiedad
+     * al consumidor. Las leemos de a bloques de LIMITE_MAXIMO: por cada bloque
+     * buscamos los servicios en una sola consulta y vaciamos el contexto de
+     * persistencia, para que la memoria no crezca con el tamaño del catálogo.
+     */
+    @Transactional(readOnly = true)
+    public void recorrerTodasLasPropiedades(Consumer<PropiedadDTO> consumidor) {
+        try (Stream<Propiedad> propiedades = propiedadRepository.streamAll()) {
+            List<Propiedad> bloque = new ArrayList<>(LIMITE_MAXIMO);
+            for (Propiedad propiedad : (Iterable<Propiedad>) propiedades::iterator) {
+                bloque.add(propiedad);
+                if (bloque.size() == LIMITE_MAXIMO) {
+                    aDTOs(bloque).forEach(consumidor);
+                    bloque.clear();
+                    entityManager.clear();
+                }
+            }
+            aDTOs(bloque).forEach(consumidor);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PropiedadDTO> obtenerPropiedadPorId(Long id) {
+        return propiedadRepository.findDetalleById(id).map(PropiedadDTO::desde);
+    }
+
+    /**
+     * El detalle de una propiedad ya serializado (desde la caché si está)
+     */
+    public Optional<RespuestaCacheada> obtenerPropiedadCacheada(Long id) {
+        return cacheLecturas.propiedad(id, this::obtenerPropiedadPorId);
+    }
+
+    /**
+     * Noches ocupadas de una propiedad en [desde, hasta), para dibujar el calendario.
+     * Se arma mes por mes con los mapas de bits del índice de disponibilidad
+     * (cacheados por propiedad y mes), sin cargar reservas.
+     */
+    public DisponibilidadDTO obtenerDisponibilidad(Long propiedadId, LocalDate desde, LocalDate hasta) {
+
+        // 1. Validamos la ventana
+        if (desde == null || hasta == null || !hasta.isAfter(desde)) {
+            throw new IllegalArgumentException("La fecha 'hasta' debe ser posterior a 'desde'.");
+        }
+        int noches = (int) ChronoUnit.DAYS.between(desde, hasta);
+        if (noches > DIAS_MAXIMOS_DISPONIBILIDAD) {
+            throw new IllegalArgumentException(
+                    "Se pueden pedir como máximo " + DIAS_MAXIMOS_DISPONIBILIDAD + " días.");
+        }
+        if (!propiedadRepository.existsById(propiedadId)) {
+            throw new EntityNotFoundException("Propiedad no encontrada con ID: " + propiedadId);
+        }
+
+        // 2. Copiamos los bits de cada mes a su posición dentro de la ventana
+        BitSet ocupadas = new BitSet(noches);
+        int posicion = 0;
+        for (YearMonth mes = YearMonth.from(desde); posicion < noches; mes = mes.plusMonths(1)) {
+            int mapaDelMes = indiceDisponibilidad.nochesOcupadasDelMes(propiedadId, mes);
+            int primerDia = posicion == 0 ? desde.getDayOfMonth() - 1 : 0;
+            for (int dia = primerDia; dia < mes.lengthOfMonth() && posicion < noches; dia++, posicion++) {
+                if ((mapaDelMes & (1 << dia)) != 0) {
+                    ocupadas.set(posicion);
+                }
+            }
+        }
+
+        // 3. El mismo mapa, agrupado en rangos de noches consecutivas
+        List<DisponibilidadDTO.Rango> rangos = new ArrayList<>();
+        for (int inicio = ocupadas.nextSetBit(0); inicio >= 0; inicio = ocupadas.nextSetBit(inicio)) {
+            int fin = ocupadas.nextClearBit(inicio);
+            rangos.add(new DisponibilidadDTO.Rango(desde.plusDays(inicio), desde.plusDays(fin)));
+            inicio = fin;
+        }
+
+        // (toByteArray recorta los ceros del final: completamos hasta cubrir todas las noches)
+        byte[] bytes = Arrays.copyOf(ocupadas.toByteArray(), (noches + 7) / 8);
+        return new DisponibilidadDTO(propiedadId, desde, hasta, Base64.getEncoder().encodeToString(bytes), rangos);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PropiedadDTO> obtenerPropiedadesPorAnfitrion(Long anfitrionId) {
+        return aDTOs(propiedadRepository.findByAnfitrionIdOrderByIdAsc(anfitrionId));
+    }
+
+    /**
+     * Vista resumen de las propiedades del anfitrión logueado
+     */
+    @Transactional(readOnly = true)
+    public List<PropiedadResumenDTO> obtenerResumenesPorEmailAnfitrion(String emailUsuarioLogueado) {
+        Usuario anfitrion = usuarioRepository.findByEmail(emailUsuarioLogueado)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Usuario anfitrión no encontrado con email: " + emailUsuarioLogueado));
+
+        return conServicioIds(propiedadRepository.findResumenesByAnfitrionId(anfitrion.getId()));
     }
 
     @Transactional
-    public Propiedad crearPropiedad(Propiedad propiedad, String emailUsuarioLogueado) {
+    public PropiedadDTO crearPropiedad(Propiedad propiedad, String emailUsuarioLogueado) {
         Optional<Usuario> anfitrionOptional = usuarioRepository.findByEmail(emailUsuarioLogueado);
 
         // Verificamos si el anfitrión existe
@@ -67,12 +301,15 @@ public class PropiedadService {
         String newImageUrl = String.format("/img/propiedades/%d/IMG1.jpg", nextImageIndex);
         propiedad.setImagenPrincipalUrl(newImageUrl);
 
-        // Guardamos la propiedad (ya vinculada) en la BD
-        return propiedadRepository.save(propiedad);
+        // Guardamos la propiedad (ya vinculada) en la BD; las páginas cacheadas del listado quedan viejas
+        Propiedad guardada = propiedadRepository.save(propiedad);
+        cacheLecturas.invalidarPaginas();
+        indiceBusqueda.indexar(guardada);
+        return PropiedadDTO.desde(guardada);
     }
 
     @Transactional
-    public Propiedad agregarServicioAPropiedad(Long propiedadId, Long servicioId, String emailUsuarioLogueado) {
+    public PropiedadDTO agregarServicioAPropiedad(Long propiedadId, Long servicioId, String emailUsuarioLogueado) {
 
         Propiedad propiedad = propiedadRepository.findById(propiedadId)
                 .orElseThrow(() -> new EntityNotFoundException("Propiedad no encontrada con ID: " + propiedadId));
@@ -83,7 +320,9 @@ public class PropiedadService {
                 .orElseThrow(() -> new EntityNotFoundException("Servicio no encontrado con ID: " + servicioId));
 
         propiedad.getServicios().add(servicio);
-        return propiedadRepository.save(propiedad);
+        cacheLecturas.invalidarPropiedad(propiedadId);
+        motorPrecios.invalidarPropiedad(propiedadId);
+        return PropiedadDTO.desde(propiedadRepository.save(propiedad));
     }
 
     private void validarPropietario(Propiedad propiedad, String emailUsuarioLogueado) {
@@ -95,13 +334,14 @@ public class PropiedadService {
         }
     }
 
-    public List<Propiedad> obtenerPropiedadesPorEmailAnfitrion(String emailUsuarioLogueado) {
+    @Transactional(readOnly = true)
+    public List<PropiedadDTO> obtenerPropiedadesPorEmailAnfitrion(String emailUsuarioLogueado) {
 
         Usuario anfitrion = usuarioRepository.findByEmail(emailUsuarioLogueado)
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Usuario anfitrión no encontrado con email: " + emailUsuarioLogueado));
 
-        return propiedadRepository.findByAnfitrionId(anfitrion.getId());
+        return aDTOs(propiedadRepository.findByAnfitrionIdOrderByIdAsc(anfitrion.getId()));
     }
 
     /**
@@ -118,20 +358,24 @@ public class PropiedadService {
         validarPropietario(propiedad, emailUsuarioLogueado);
 
         //  3.  Comprobamos si hay reservas asociadas
-        if (!reservaRepository.findByPropiedadId(propiedadId).isEmpty()) {
-            // Si la lista NO está vacía, lanzamos un error
+        if (reservaRepository.existsByPropiedadId(propiedadId)) {
+            // Si tiene al menos una, lanzamos un error
             throw new IllegalStateException("No se puede borrar la propiedad porque tiene reservas asociadas.");
         }
 
-        // 4. Borramos la propiedad
+        // 4. Borramos la propiedad (y su calendario del índice, sus textos del buscador y su detalle cacheado)
         propiedadRepository.delete(propiedad);
+        indiceDisponibilidad.descartarPropiedad(propiedadId);
+        indiceBusqueda.quitar(propiedadId);
+        cacheLecturas.invalidarPropiedad(propiedadId);
+        motorPrecios.invalidarPropiedad(propiedadId);
     }
 
     /**
      * Actualiza una propiedad existente.
      */
     @Transactional
-    public Propiedad actualizarPropiedad(Long propiedadId, Propiedad datosNuevos, String emailUsuarioLogueado) {
+    public PropiedadDTO actualizarPropiedad(Long propiedadId, Propiedad datosNuevos, String emailUsuarioLogueado) {
 
         // 1. Encontrar la propiedad existente en la BD
         Propiedad propiedadExistente = propiedadRepository.findById(propiedadId)
@@ -162,7 +406,53 @@ public class PropiedadService {
             propiedadExistente.setServicios(serviciosCompletos);
         }
 
-        // 5. Guardamos la entidad actualizada
-        return propiedadRepository.save(propiedadExistente);
+        // 5. Guardamos la entidad actualizada (el detalle cacheado y la tabla de tarifas se descartan
+        //    y el buscador toma los textos nuevos al confirmar)
+        cacheLecturas.invalidarPropiedad(propiedadId);
+        motorPrecios.invalidarPropiedad(propiedadId);
+        Propiedad guardada = propiedadRepository.save(propiedadExistente);
+        indiceBusqueda.indexar(guardada);
+        return PropiedadDTO.desde(guardada);
+    }
+
+    // --- Métodos Privados ---
+
+    /**
+     * Convierte una página de propiedades (con su anfitrión ya cargado) en DTOs.
+     * Los servicios de TODA la página se traen en una sola consulta, en vez de
+     * una por propiedad.
+     */
+    private List<PropiedadDTO> aDTOs(List<Propiedad> propiedades) {
+        if (propiedades.isEmpty()) {
+            return List.of();
+        }
+
+        // 1. Una consulta para los servicios de todas las propiedades de la página
+        List<Long> ids = propiedades.stream().map(Propiedad::getId).toList();
+        Map<Long, List<ServicioDTO>> serviciosPorPropiedad = propiedadRepository.findServiciosDePropiedades(ids)
+                .stream()
+                .collect(Collectors.groupingBy(ServicioDePropiedad::getPropiedadId,
+                        Collectors.mapping(ServicioDTO::desde, Collectors.toList())));
+
+        // 2. Armamos cada DTO con sus servicios (o ninguno)
+        return propiedades.stream()
+                .map(p -> PropiedadDTO.desde(p, serviciosPorPropiedad.getOrDefault(p.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Completa los IDs de servicios de una página de resúmenes, también con una
+     * sola consulta para toda la página.
+     */
+    private List<PropiedadResumenDTO> conServicioIds(List<PropiedadResumenDTO> resumenes) {
+        if (resumenes.isEmpty()) {
+            return resumenes;
+        }
+        Map<Long, PropiedadResumenDTO> porId = resumenes.stream()
+                .collect(Collectors.toMap(PropiedadResumenDTO::getId, r -> r));
+        for (ServicioIdDePropiedad servicio : propiedadRepository.findServicioIdsDePropiedades(porId.keySet())) {
+            porId.get(servicio.getPropiedadId()).getServicioIds().add(servicio.getServicioId());
+        }
+        return resumenes;
     }
 }
\ No newline at end of file
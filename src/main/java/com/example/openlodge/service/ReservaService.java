@@ -1,13 +1,41 @@
 package com.example.openlodge.service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.openlodge.dto.ClaveDeReserva;
+import com.example.openlodge.dto.LoteReservaRequest;
+import com.example.openlodge.dto.LoteReservaResponse;
+import com.example.openlodge.dto.ModoLote;
+import com.example.openlodge.dto.OcupacionMensualDTO;
+import com.example.openlodge.dto.RangoReservaDePropiedad;
+import com.example.openlodge.dto.ReservaDeAnfitrionDTO;
 import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.dto.ResultadoReservaLote;
+import com.example.openlodge.dto.ResultadoReservaLote.Estado;
+import com.example.openlodge.dto.ResumenAnfitrionDTO;
+import com.example.openlodge.evento.Estadia;
+import com.example.openlodge.evento.ReservasCanceladas;
+import com.example.openlodge.evento.ReservasCreadas;
 import com.example.openlodge.model.Propiedad;
 import com.example.openlodge.model.Reserva;
 import com.example.openlodge.model.Usuario;
@@ -15,26 +43,67 @@ import com.example.openlodge.repository.PropiedadRepository;
 import com.example.openlodge.repository.ReservaRepository;
 import com.example.openlodge.repository.UsuarioRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 
 @Service
 public class ReservaService {
+    // Ventana de fechas de las consultas del anfitrión: la que se usa si no la piden y la más larga permitida
+    public static final int DIAS_VENTANA_POR_DEFECTO = 90;
+    public static final int DIAS_VENTANA_MAXIMA = 366;
+    // Meses que abarca como máximo el reporte mensual del anfitrión
+    public static final int MESES_REPORTE_MAXIMO = 36;
+
     private final ReservaRepository reservaRepository;
     private final UsuarioRepository usuarioRepository;
     private final PropiedadRepository propiedadRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final MotorPrecios motorPrecios;
+    private final ResumenOcupacion resumenOcupacion;
+    // Avisa de las reservas creadas y canceladas (ResumenOcupacion actualiza sus contadores)
+    private final ApplicationEventPublisher eventos;
+    // Máximo de reservas por lote
+    private final int maxReservasPorLote;
+
+    // Contadores de reservas rechazadas por fechas ocupadas (el 409 de crearReserva),
+    // separados según si el índice en memoria ya lo veía o sólo lo vio la BD
+    // (siempre lo confirma la BD)
+    private final Counter conflictosEnIndice;
+    private final Counter conflictosEnBaseDeDatos;
 
     @Autowired
     public ReservaService(ReservaRepository reservaRepository,
             UsuarioRepository usuarioRepository,
-            PropiedadRepository propiedadRepository) {
+            PropiedadRepository propiedadRepository,
+            IndiceDisponibilidad indiceDisponibilidad,
+            MotorPrecios motorPrecios,
+            ResumenOcupacion resumenOcupacion,
+            ApplicationEventPublisher eventos,
+            MeterRegistry meterRegistry,
+            @Value("${reservas.lote.max-reservas:100}") int maxReservasPorLote) {
         this.reservaRepository = reservaRepository;
         this.usuarioRepository = usuarioRepository;
         this.propiedadRepository = propiedadRepository;
+        this.indiceDisponibilidad = indiceDisponibilidad;
+        this.motorPrecios = motorPrecios;
+        this.resumenOcupacion = resumenOcupacion;
+        this.eventos = eventos;
+        this.maxReservasPorLote = maxReservasPorLote;
+        this.conflictosEnIndice = Counter.builder("reservas.conflictos")
+                .description("Reservas rechazadas porque las fechas ya estaban ocupadas")
+                .tag("detectado", "indice")
+                .register(meterRegistry);
+        this.conflictosEnBaseDeDatos = Counter.builder("reservas.conflictos")
+                .description("Reservas rechazadas porque las fechas ya estaban ocupadas")
+                .tag("detectado", "base_de_datos")
+                .register(meterRegistry);
     }
 
     /**
      * Crea una reserva nueva.
+     * Para llamadas concurrentes, usar CoordinadorReservas (ordena las
+     * peticiones de una misma propiedad antes de abrir la transacción).
      */
     @Transactional
     public Reserva crearReserva(ReservaRequest request, String emailHuesped) {
@@ -43,43 +112,219 @@ public class ReservaService {
         Usuario huesped = usuarioRepository.findByEmail(emailHuesped)
                 .orElseThrow(() -> new EntityNotFoundException("Huésped no encontrado con email: " + emailHuesped));
 
-        // 2. Buscar la Propiedad por su ID (del DTO)
-        Propiedad propiedad = propiedadRepository.findById(request.getPropiedadId())
+        // 2. Buscar la Propiedad por su ID (del DTO), bloqueando su fila
+        //    hasta el commit para que nadie más valide fechas en paralelo
+        Propiedad propiedad = propiedadRepository.findByIdParaReservar(request.getPropiedadId())
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Propiedad no encontrada con ID: " + request.getPropiedadId()));
 
         // 3. Validacion de disponibilidad
-        List<Reserva> overlappingReservas = reservaRepository.findOverlappingReservas(
+        // 3.a Primero en memoria. El índice puede equivocarse para los dos lados (otra
+        //     instancia reservó o canceló, o una cancelación todavía no se le aplicó),
+        //     así que su respuesta no alcanza para rechazar
+        boolean ocupadaEnIndice = indiceDisponibilidad.haySuperposicion(
+                request.getPropiedadId(),
+                request.getFechaInicio(),
+                request.getFechaFin());
+
+        // 3.b Lo que decide es la BD (sólo si existe alguna, sin cargarlas)
+        boolean haySuperposicion = reservaRepository.existsOverlappingReserva(
                 request.getPropiedadId(),
                 request.getFechaInicio(),
                 request.getFechaFin()
         );
 
-        if (!overlappingReservas.isEmpty()) {
+        if (haySuperposicion) {
+            (ocupadaEnIndice ? conflictosEnIndice : conflictosEnBaseDeDatos).increment();
             // Lanzamos un error que el Controller atrapará
             throw new IllegalStateException("Las fechas seleccionadas ya no están disponibles.");
         }
+        if (ocupadaEnIndice) {
+            // El calendario en memoria quedó viejo: que se vuelva a cargar de la BD
+            indiceDisponibilidad.descartarPropiedad(request.getPropiedadId());
+        }
 
-        // 4. Crear la nueva entidad Reserva
-        Reserva nuevaReserva = new Reserva();
+        // 4. Calcular el precio (noches + servicios elegidos) con las tarifas de la propiedad
+        MotorPrecios.Cotizacion cotizacion = motorPrecios.cotizar(
+                propiedad.getId(),
+                request.getFechaInicio(),
+                request.getFechaFin(),
+                request.getServicioIds());
 
-        // 5. Llenar los datos desde el DTO
+        // 5. Crear la nueva entidad Reserva y llenar los datos desde el DTO
+        Reserva nuevaReserva = new Reserva();
         nuevaReserva.setFechaInicio(request.getFechaInicio());
         nuevaReserva.setFechaFin(request.getFechaFin());
-        nuevaReserva.setPrecioTotal(request.getPrecioTotal());
+        nuevaReserva.setPrecioTotal(cotizacion.precioTotal());
         nuevaReserva.setNotas(request.getNotas());
 
         // 5. Asignar las relaciones
         nuevaReserva.setHuesped(huesped);
         nuevaReserva.setPropiedad(propiedad);
 
-        // 6. Guardar y devolver la reserva creada
-        return reservaRepository.save(nuevaReserva);
+        // 6. Guardar la reserva y avisarle al índice (se aplica al confirmar) y al resumen de ocupación
+        Reserva reservaGuardada = reservaRepository.save(nuevaReserva);
+        indiceDisponibilidad.registrarReserva(
+                propiedad.getId(),
+                reservaGuardada.getFechaInicio(),
+                reservaGuardada.getFechaFin());
+        eventos.publishEvent(new ReservasCreadas(List.of(Estadia.de(reservaGuardada))));
+
+        return reservaGuardada;
+    }
+
+    /**
+     * Crea varias reservas del mismo huésped de una sola vez.
+     *
+     * En vez de repetir N veces el camino de crearReserva, hace:
+     * una búsqueda del huésped, una de todas las propiedades (bloqueándolas),
+     * una consulta de superposiciones para todo el lote y un saveAll.
+     *
+     * - TODO_O_NADA: si alguna reserva falla no se guarda ninguna.
+     * - MEJOR_ESFUERZO: se guardan las válidas y se informan las demás.
+     *
+     * Para llamadas concurrentes, usar CoordinadorReservas.
+     */
+    @Transactional
+    public LoteReservaResponse crearReservasEnLote(LoteReservaRequest lote, String emailHuesped) {
+        List<ReservaRequest> pedidas = lote.getReservas() == null ? List.of() : lote.getReservas();
+        ModoLote modo = lote.getModo() == null ? ModoLote.TODO_O_NADA : lote.getModo();
+        validarTamanio(pedidas);
+
+        // Buscar al Huésped UNA sola vez
+        Usuario huesped = usuarioRepository.findByEmail(emailHuesped)
+                .orElseThrow(() -> new EntityNotFoundException("Huésped no encontrado con email: " + emailHuesped));
+
+        return procesarLote(pedidas, Collections.nCopies(pedidas.size(), huesped),
+                Collections.nCopies(pedidas.size(), null), modo);
+    }
+
+    /**
+     * Crea reservas de VARIOS huéspedes en una sola transacción (la usa ColaReservas
+     * para confirmar de a lotes las solicitudes asincrónicas). Siempre en MEJOR_ESFUERZO:
+     * cada reserva tiene su resultado, en el mismo orden; un huésped que no existe
+     * sale como NO_ENCONTRADA.
+     *
+     * 'claves' trae la clave de idempotencia de cada reserva y se guarda con ella. Si
+     * el huésped ya tiene una reserva con esa clave (un reproceso después de una caída)
+     * no se crea otra: sale como CREADA con el ID de la que ya existía.
+     *
+     * Para llamadas concurrentes, usar CoordinadorReservas.
+     */
+    @Transactional
+    public LoteReservaResponse crearReservasDeVariosHuespedes(List<ReservaRequest> pedidas, List<String> emailsHuespedes,
+            List<String> claves) {
+        validarTamanio(pedidas);
+
+        // Cada huésped distinto, una sola vez y en una sola consulta
+        Map<String, Usuario> huespedes = usuarioRepository.findByEmailIn(Set.copyOf(emailsHuespedes)).stream()
+                .collect(Collectors.toMap(Usuario::getEmail, Function.identity()));
+        List<Usuario> huespedPorReserva = emailsHuespedes.stream().map(huespedes::get).toList();
+
+        return procesarLote(pedidas, huespedPorReserva, claves, ModoLote.MEJOR_ESFUERZO);
+    }
+
+    // El corazón de los lotes: 'huespedes' trae el huésped de cada reserva (null si no existe)
+    // y 'claves' su clave de idempotencia (null si no tiene)
+    private LoteReservaResponse procesarLote(List<ReservaRequest> pedidas, List<Usuario> huespedes, List<String> claves,
+            ModoLote modo) {
+
+        // 1. Todas las propiedades en una consulta, bloqueando sus filas hasta el commit
+        Set<Long> propiedadIds = pedidas.stream()
+                .map(ReservaRequest::getPropiedadId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Propiedad> propiedades = propiedadIds.isEmpty()
+                ? Map.of()
+                : propiedadRepository.findAllByIdParaReservar(propiedadIds).stream()
+                        .collect(Collectors.toMap(Propiedad::getId, Function.identity()));
+
+        // 2. Las reservas existentes que tocan la ventana del lote, en una consulta,
+        //    y las tarifas de todas las propiedades (las que falten, también juntas)
+        Map<Long, List<RangoReservaDePropiedad>> ocupadas = buscarOcupadas(pedidas, propiedades.keySet());
+        Map<Long, MotorPrecios.TarifaPropiedad> tarifas = motorPrecios.tarifas(propiedades.keySet());
+        Map<String, Long> yaCreadas = buscarYaCreadas(huespedes, claves);
+
+        // 3. Validamos cada reserva (también contra las anteriores del mismo lote)
+        List<ResultadoReservaLote> resultados = new ArrayList<>(pedidas.size());
+        Map<Long, List<ReservaRequest>> aceptadasPorPropiedad = new HashMap<>();
+        List<Reserva> nuevas = new ArrayList<>();
+        int repetidas = 0;
+        for (int i = 0; i < pedidas.size(); i++) {
+            ReservaRequest pedida = pedidas.get(i);
+            ResultadoReservaLote resultado = new ResultadoReservaLote(i, pedida.getPropiedadId(), null, null, null);
+            resultados.add(resultado);
+
+            Propiedad propiedad = propiedades.get(pedida.getPropiedadId());
+            Usuario huesped = huespedes.get(i);
+            String clave = claves.get(i);
+            Long yaCreada = huesped == null || clave == null ? null : yaCreadas.get(huesped.getId() + "\n" + clave);
+            if (yaCreada != null) {
+                // Ya se había guardado con esta clave (antes de una caída): es la misma reserva
+                resultado.setEstado(Estado.CREADA);
+                resultado.setReservaId(yaCreada);
+                repetidas++;
+            } else if (!fechasValidas(pedida)) {
+                rechazar(resultado, Estado.INVALIDA, "Faltan datos o la fecha de fin no es posterior a la de inicio.");
+            } else if (huesped == null) {
+                rechazar(resultado, Estado.NO_ENCONTRADA, "Huésped no encontrado.");
+            } else if (propiedad == null) {
+                rechazar(resultado, Estado.NO_ENCONTRADA, "Propiedad no encontrada con ID: " + pedida.getPropiedadId());
+            } else if (seSuperpone(pedida, ocupadas.getOrDefault(propiedad.getId(), List.of()),
+                    aceptadasPorPropiedad.getOrDefault(propiedad.getId(), List.of()))) {
+                conflictosEnBaseDeDatos.increment();
+                rechazar(resultado, Estado.CONFLICTO, "Las fechas seleccionadas ya no están disponibles.");
+            } else {
+                MotorPrecios.Cotizacion cotizacion;
+                try {
+                    cotizacion = tarifas.get(propiedad.getId())
+                            .cotizar(pedida.getFechaInicio(), pedida.getFechaFin(), pedida.getServicioIds());
+                } catch (IllegalArgumentException e) {
+                    rechazar(resultado, Estado.INVALIDA, e.getMessage());
+                    continue;
+                }
+                aceptadasPorPropiedad.computeIfAbsent(propiedad.getId(), id -> new ArrayList<>()).add(pedida);
+                Reserva nueva = nuevaReserva(pedida, cotizacion, huesped, propiedad);
+                nueva.setClaveIdempotencia(clave);
+                nuevas.add(nueva);
+                resultado.setEstado(Estado.CREADA);
+            }
+        }
+
+        // 4. En TODO_O_NADA, un rechazo cancela todo el lote (no se escribió nada todavía)
+        int rechazadas = pedidas.size() - nuevas.size() - repetidas;
+        if (modo == ModoLote.TODO_O_NADA && rechazadas > 0) {
+            for (ResultadoReservaLote resultado : resultados) {
+                if (resultado.getEstado() == Estado.CREADA) {
+                    rechazar(resultado, Estado.NO_PROCESADA, "No se guardó porque otra reserva del lote falló.");
+                }
+            }
+            return new LoteReservaResponse(modo, 0, pedidas.size(), resultados);
+        }
+
+        // 5. Guardamos todas juntas y avisamos al índice (se aplica al confirmar) y al resumen de ocupación
+        List<Reserva> guardadas = reservaRepository.saveAll(nuevas);
+        if (!guardadas.isEmpty()) {
+            eventos.publishEvent(new ReservasCreadas(guardadas.stream().map(Estadia::de).toList()));
+        }
+        int siguiente = 0;
+        for (ResultadoReservaLote resultado : resultados) {
+            if (resultado.getEstado() == Estado.CREADA && resultado.getReservaId() == null) {
+                Reserva guardada = guardadas.get(siguiente++);
+                resultado.setReservaId(guardada.getId());
+                indiceDisponibilidad.registrarReserva(
+                        guardada.getPropiedad().getId(),
+                        guardada.getFechaInicio(),
+                        guardada.getFechaFin());
+            }
+        }
+        return new LoteReservaResponse(modo, guardadas.size() + repetidas, rechazadas, resultados);
     }
 
     /**
      * Obtiene todas las reservas hechas POR un huésped
      */
+    @Transactional(readOnly = true)
     public List<Reserva> obtenerMisReservas(String emailHuesped) {
         // 1. Buscamos al Huésped por su email (del token)
         Usuario huesped = usuarioRepository.findByEmail(emailHuesped)
@@ -92,6 +337,7 @@ public class ReservaService {
     /**
      * Obtiene todas las reservas hechas A las propiedades de un Anfitrión
      */
+    @Transactional(readOnly = true)
     public List<Reserva> obtenerReservasDeMisPropiedades(String emailAnfitrion) {
         // 1. Buscamos al Anfitrión por su email (del token)
         Usuario anfitrion = usuarioRepository.findByEmail(emailAnfitrion)
@@ -101,6 +347,62 @@ public class ReservaService {
         return reservaRepository.findByPropiedadAnfitrionId(anfitrion.getId());
     }
 
+    /**
+     * Una página (por cursor de ID) de las reservas a las propiedades de un anfitrión
+     * que tocan la ventana [desde, hasta). Sin fechas: desde hoy y los próximos
+     * DIAS_VENTANA_POR_DEFECTO días. Sale de una proyección: no carga las entidades.
+     */
+    @Transactional(readOnly = true)
+    public List<ReservaDeAnfitrionDTO> obtenerReservasDeMisPropiedades(String emailAnfitrion,
+            LocalDate desde, LocalDate hasta, Long despuesDeId, int limite) {
+        // 1. Buscamos al Anfitrión por su email (del token)
+        Usuario anfitrion = usuarioRepository.findByEmail(emailAnfitrion)
+                .orElseThrow(() -> new EntityNotFoundException("Anfitrión no encontrado con email: " + emailAnfitrion));
+
+        // 2. La ventana pedida (o la por defecto) y la página
+        LocalDate inicio = desde == null ? LocalDate.now() : desde;
+        LocalDate fin = finDeVentana(inicio, hasta);
+        long cursor = despuesDeId == null ? 0L : despuesDeId;
+        return reservaRepository.findDeAnfitrionEnVentana(anfitrion.getId(), inicio, fin, cursor,
+                Limit.of(PropiedadService.acotarLimite(limite)));
+    }
+
+    /**
+     * Tablero del anfitrión: por cada propiedad, ocupación e ingresos en [desde, hasta)
+     * y los próximos check-ins, más los totales. Sale del resumen de ocupación
+     * (ocupacion_diaria), sin recorrer las reservas.
+     */
+    @Transactional(readOnly = true)
+    public ResumenAnfitrionDTO obtenerResumenDeMisPropiedades(String emailAnfitrion, LocalDate desde, LocalDate hasta) {
+        // 1. Buscamos al Anfitrión por su email (del token)
+        Usuario anfitrion = usuarioRepository.findByEmail(emailAnfitrion)
+                .orElseThrow(() -> new EntityNotFoundException("Anfitrión no encontrado con email: " + emailAnfitrion));
+
+        // 2. La ventana pedida (o la por defecto) contra el resumen
+        LocalDate inicio = desde == null ? LocalDate.now() : desde;
+        return resumenOcupacion.resumenDeAnfitrion(anfitrion.getId(), inicio, finDeVentana(inicio, hasta));
+    }
+
+    /**
+     * Noches vendidas, llegadas e ingresos de cada propiedad del anfitrión, mes por mes,
+     * entre 'desde' y 'hasta' (incluidos). Sin meses: los últimos 12 hasta el actual.
+     */
+    @Transactional(readOnly = true)
+    public List<OcupacionMensualDTO> obtenerReporteMensual(String emailAnfitrion, YearMonth desde, YearMonth hasta) {
+        // 1. Buscamos al Anfitrión por su email (del token)
+        Usuario anfitrion = usuarioRepository.findByEmail(emailAnfitrion)
+                .orElseThrow(() -> new EntityNotFoundException("Anfitrión no encontrado con email: " + emailAnfitrion));
+
+        // 2. Los meses pedidos, acotados
+        YearMonth ultimo = hasta == null ? YearMonth.now() : hasta;
+        YearMonth primero = desde == null ? ultimo.minusMonths(11) : desde;
+        if (primero.isAfter(ultimo) || ChronoUnit.MONTHS.between(primero, ultimo) >= MESES_REPORTE_MAXIMO) {
+            throw new IllegalArgumentException(
+                    "El mes 'desde' no puede ser posterior a 'hasta' y el reporte abarca a lo sumo " + MESES_REPORTE_MAXIMO + " meses.");
+        }
+        return resumenOcupacion.reporteMensual(anfitrion.getId(), primero, ultimo);
+    }
+
     /**
      * Cancela (borra) una reserva
      * Valida que el usuario logueado sea el Anfitrión de la propiedad reservada
@@ -122,8 +424,10 @@ public class ReservaService {
             throw new AccessDeniedException("No tienes permiso para cancelar esta reserva.");
         }
 
-        // 4. Borramos la reserva
+        // 4. Borramos la reserva, liberamos las fechas en el índice y la restamos del resumen de ocupación
         reservaRepository.delete(reserva);
+        indiceDisponibilidad.liberarReserva(propiedadReservada.getId(), reserva.getFechaInicio(), reserva.getFechaFin());
+        eventos.publishEvent(new ReservasCanceladas(List.of(Estadia.de(reserva))));
     }
 
     /**
@@ -154,7 +458,101 @@ public class ReservaService {
             throw new IllegalStateException("No se puede cancelar una reserva que ya ha comenzado o es para hoy.");
         }
 
-        // 5. Borramos la reserva
+        // 5. Borramos la reserva, liberamos las fechas en el índice y la restamos del resumen de ocupación
         reservaRepository.delete(reserva);
+        indiceDisponibilidad.liberarReserva(
+                reserva.getPropiedad().getId(),
+                reserva.getFechaInicio(),
+                reserva.getFechaFin());
+        eventos.publishEvent(new ReservasCanceladas(List.of(Estadia.de(reserva))));
+    }
+
+    // --- Métodos Privados ---
+
+    // Reservas existentes de las propiedades del lote, agrupadas por propiedad
+    private Map<Long, List<RangoReservaDePropiedad>> buscarOcupadas(List<ReservaRequest> pedidas, Set<Long> propiedadIds) {
+        List<ReservaRequest> validas = pedidas.stream().filter(ReservaService::fechasValidas).toList();
+        if (propiedadIds.isEmpty() || validas.isEmpty()) {
+            return Map.of();
+        }
+        // Una sola ventana que cubre todas las fechas pedidas
+        LocalDate desde = Collections.min(validas.stream().map(ReservaRequest::getFechaInicio).toList());
+        LocalDate hasta = Collections.max(validas.stream().map(ReservaRequest::getFechaFin).toList());
+        return reservaRepository.findRangosEnVentana(propiedadIds, desde, hasta).stream()
+                .collect(Collectors.groupingBy(RangoReservaDePropiedad::getPropiedadId));
+    }
+
+    // El fin de la ventana de las consultas del anfitrión (por defecto, DIAS_VENTANA_POR_DEFECTO después del inicio)
+    private static LocalDate finDeVentana(LocalDate inicio, LocalDate hasta) {
+        LocalDate fin = hasta == null ? inicio.plusDays(DIAS_VENTANA_POR_DEFECTO) : hasta;
+        if (!fin.isAfter(inicio) || ChronoUnit.DAYS.between(inicio, fin) > DIAS_VENTANA_MAXIMA) {
+            throw new IllegalArgumentException(
+                    "La fecha 'hasta' debe ser posterior a 'desde' y la ventana de a lo sumo " + DIAS_VENTANA_MAXIMA + " días.");
+        }
+        return fin;
+    }
+
+    private void validarTamanio(List<ReservaRequest> pedidas) {
+        if (pedidas.isEmpty() || pedidas.size() > maxReservasPorLote) {
+            throw new IllegalArgumentException(
+                    "El lote debe tener entre 1 y " + maxReservasPorLote + " reservas.");
+        }
+    }
+
+    private static boolean fechasValidas(ReservaRequest pedida) {
+        return pedida.getPropiedadId() != null
+                && pedida.getFechaInicio() != null
+                && pedida.getFechaFin() != null
+                && pedida.getFechaFin().isAfter(pedida.getFechaInicio());
+    }
+
+    // (A.Inicio < B.Fin) Y (A.Fin > B.Inicio), contra las existentes y las ya aceptadas del lote
+    private static boolean seSuperpone(ReservaRequest pedida, List<RangoReservaDePropiedad> existentes,
+            List<ReservaRequest> aceptadas) {
+        for (RangoReservaDePropiedad rango : existentes) {
+            if (pedida.getFechaInicio().isBefore(rango.getFechaFin()) && pedida.getFechaFin().isAfter(rango.getFechaInicio())) {
+                return true;
+            }
+        }
+        for (ReservaRequest otra : aceptadas) {
+            if (pedida.getFechaInicio().isBefore(otra.getFechaFin()) && pedida.getFechaFin().isAfter(otra.getFechaInicio())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Las reservas que ya existen con la clave de idempotencia de alguna del lote, por "huespedId\nclave"
+    private Map<String, Long> buscarYaCreadas(List<Usuario> huespedes, List<String> claves) {
+        Set<Long> huespedIds = new HashSet<>();
+        Set<String> conClave = new HashSet<>();
+        for (int i = 0; i < claves.size(); i++) {
+            if (claves.get(i) != null && huespedes.get(i) != null) {
+                huespedIds.add(huespedes.get(i).getId());
+                conClave.add(claves.get(i));
+            }
+        }
+        if (conClave.isEmpty()) {
+            return Map.of();
+        }
+        return reservaRepository.findClavesIdempotencia(huespedIds, conClave).stream()
+                .collect(Collectors.toMap(r -> r.getHuespedId() + "\n" + r.getClave(), ClaveDeReserva::getId));
+    }
+
+    private static void rechazar(ResultadoReservaLote resultado, Estado estado, String mensaje) {
+        resultado.setEstado(estado);
+        resultado.setMensaje(mensaje);
+    }
+
+    private static Reserva nuevaReserva(ReservaRequest request, MotorPrecios.Cotizacion cotizacion, Usuario huesped,
+            Propiedad propiedad) {
+        Reserva reserva = new Reserva();
+        reserva.setFechaInicio(request.getFechaInicio());
+        reserva.setFechaFin(request.getFechaFin());
+        reserva.setPrecioTotal(cotizacion.precioTotal());
+        reserva.setNotas(request.getNotas());
+        reserva.setHuesped(huesped);
+        reserva.setPropiedad(propiedad);
+        return reserva;
     }
 }
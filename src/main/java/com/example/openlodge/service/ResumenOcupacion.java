@@ -0,0 +1,303 @@
+package com.example.openlodge.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.openlodge.dto.OcupacionMensualDTO;
+import com.example.openlodge.dto.OcupacionPropiedadDTO;
+import com.example.openlodge.dto.ResumenAnfitrionDTO;
+import com.example.openlodge.evento.Estadia;
+import com.example.openlodge.evento.ReservasCanceladas;
+import com.example.openlodge.evento.ReservasCreadas;
+
+/**
+ * Resumen de ocupación: la tabla ocupacion_diaria, con contadores por (propiedad, día)
+ * de noches ocupadas, llegadas e ingresos (en centavos).
+ *
+ * Se actualiza de a poco con los eventos ReservasCreadas / ReservasCanceladas, justo
+ * antes del commit de la MISMA transacción que guarda o borra las reservas: o se
+ * confirman las dos cosas o ninguna. Cada reserva reparte su precio entre sus noches
+ * (los centavos que sobran van a las primeras), así que cancelarla resta exactamente
+ * lo que había sumado.
+ *
+ * Los reportes suman a lo sumo una fila por propiedad y día de la ventana, sin importar
+ * cuántas reservas haya. Para llenar la tabla con reservas anteriores (o arreglarla)
+ * está reconstruir(), y verificar() la compara contra 'reservas'
+ * (ver MantenimientoOcupacion para correrlos al arrancar; la primera vez se llena sola).
+ */
+@Service
+public class ResumenOcupacion {
+    // "Próximos check-ins" del tablero del anfitrión: los que empiezan en esta cantidad de días
+    public static final int DIAS_CHECK_INS_PROXIMOS = 7;
+
+    // Posiciones de los contadores de un día
+    private static final int NOCHES = 0;
+    private static final int LLEGADAS = 1;
+    private static final int INGRESOS = 2;
+
+    // Suma a los contadores de un día (o crea la fila). MySQL 8.0.19+ nombra la fila nueva
+    // con un alias: VALUES(columna) está obsoleto desde 8.0.20 y avisa en cada INSERT.
+    // MariaDB y H2 (los tests) sólo entienden la forma con VALUES(columna)
+    private static final String INSERTAR = "INSERT INTO ocupacion_diaria (propiedad_id, fecha, noches, llegadas, ingresos_centavos) "
+            + "VALUES (?, ?, ?, ?, ?) ";
+    static final String SUMAR_CON_ALIAS = INSERTAR + "AS nueva ON DUPLICATE KEY UPDATE noches = noches + nueva.noches, "
+            + "llegadas = llegadas + nueva.llegadas, ingresos_centavos = ingresos_centavos + nueva.ingresos_centavos";
+    static final String SUMAR_CON_VALUES = INSERTAR + "ON DUPLICATE KEY UPDATE noches = noches + VALUES(noches), "
+            + "llegadas = llegadas + VALUES(llegadas), ingresos_centavos = ingresos_centavos + VALUES(ingresos_centavos)";
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String sumar;
+
+    @Autowired
+    public ResumenOcupacion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sumar = sentenciaSumar(jdbcTemplate);
+    }
+
+    /**
+     * Suma las noches de las reservas nuevas (antes del commit de la transacción que las guardó)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alCrear(ReservasCreadas evento) {
+        sumar(evento.estadias(), 1);
+    }
+
+    /**
+     * Resta las noches de las reservas canceladas y borra los días que quedaron en cero
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alCancelar(ReservasCanceladas evento) {
+        sumar(evento.estadias(), -1);
+        jdbcTemplate.batchUpdate("DELETE FROM ocupacion_diaria WHERE propiedad_id = ? AND fecha >= ? AND fecha < ? "
+                + "AND noches = 0 AND llegadas = 0 AND ingresos_centavos = 0",
+                evento.estadias().stream()
+                        .map(e -> new Object[] { e.propiedadId(), e.fechaInicio(), e.fechaFin() })
+                        .toList());
+    }
+
+    /**
+     * Tablero de un anfitrión: por cada propiedad, las reservas que tocan [desde, hasta),
+     * sus noches dentro de la ventana, los ingresos de esas noches y los check-ins de los
+     * próximos DIAS_CHECK_INS_PROXIMOS días, más los totales
+     */
+    public ResumenAnfitrionDTO resumenDeAnfitrion(Long anfitrionId, LocalDate desde, LocalDate hasta) {
+        long dias = ChronoUnit.DAYS.between(desde, hasta);
+
+        // 1. Por propiedad (también las que no tienen reservas). Las reservas que tocan la ventana
+        //    son las que llegan dentro de ella más las que ya estaban ocupando la noche de 'desde'
+        List<OcupacionPropiedadDTO> propiedades = jdbcTemplate.query(
+                "SELECT p.id, p.titulo, "
+                        + "COALESCE(SUM(o.llegadas), 0) + COALESCE(SUM(CASE WHEN o.fecha = ? THEN o.noches - o.llegadas ELSE 0 END), 0), "
+                        + "COALESCE(SUM(o.noches), 0), COALESCE(SUM(o.ingresos_centavos), 0) "
+                        + "FROM propiedades p LEFT JOIN ocupacion_diaria o "
+                        + "ON o.propiedad_id = p.id AND o.fecha >= ? AND o.fecha < ? "
+                        + "WHERE p.anfitrion_id = ? GROUP BY p.id, p.titulo ORDER BY p.id",
+                (rs, fila) -> new OcupacionPropiedadDTO(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4),
+                        (double) rs.getLong(4) / dias, aImporte(rs.getLong(5)), 0, null),
+                desde, desde, hasta, anfitrionId);
+
+        // 2. Los próximos check-ins
+        LocalDate hoy = LocalDate.now();
+        Map<Long, OcupacionPropiedadDTO> porId = new HashMap<>();
+        propiedades.forEach(propiedad -> porId.put(propiedad.getPropiedadId(), propiedad));
+        jdbcTemplate.query("SELECT o.propiedad_id, SUM(o.llegadas), MIN(o.fecha) FROM ocupacion_diaria o "
+                + "JOIN propiedades p ON p.id = o.propiedad_id "
+                + "WHERE p.anfitrion_id = ? AND o.fecha >= ? AND o.fecha < ? AND o.llegadas > 0 "
+                + "GROUP BY o.propiedad_id",
+                rs -> {
+                    OcupacionPropiedadDTO propiedad = porId.get(rs.getLong(1));
+                    propiedad.setCheckInsProximos(rs.getLong(2));
+                    propiedad.setProximoCheckIn(rs.getObject(3, LocalDate.class));
+                },
+                anfitrionId, hoy, hoy.plusDays(DIAS_CHECK_INS_PROXIMOS));
+
+        // 3. Totales (los ingresos, sumados en centavos)
+        long noches = 0;
+        long centavos = 0;
+        for (OcupacionPropiedadDTO propiedad : propiedades) {
+            noches += propiedad.getNochesOcupadas();
+            centavos += Math.round(propiedad.getIngresos() * 100);
+        }
+        double tasa = propiedades.isEmpty() ? 0 : (double) noches / (dias * propiedades.size());
+        return new ResumenAnfitrionDTO(desde, hasta, noches, tasa, aImporte(centavos), propiedades);
+    }
+
+    /**
+     * Noches vendidas, llegadas e ingresos por propiedad y mes, de los meses [desde, hasta]
+     * (ambos incluidos), para las propiedades de un anfitrión. Los meses sin reservas no aparecen.
+     */
+    public List<OcupacionMensualDTO> reporteMensual(Long anfitrionId, YearMonth desde, YearMonth hasta) {
+        return jdbcTemplate.query("SELECT o.propiedad_id, YEAR(o.fecha), MONTH(o.fecha), "
+                + "SUM(o.noches), SUM(o.llegadas), SUM(o.ingresos_centavos) FROM ocupacion_diaria o "
+                + "JOIN propiedades p ON p.id = o.propiedad_id "
+                + "WHERE p.anfitrion_id = ? AND o.fecha >= ? AND o.fecha < ? "
+                + "GROUP BY o.propiedad_id, YEAR(o.fecha), MONTH(o.fecha) "
+                + "ORDER BY o.propiedad_id, YEAR(o.fecha), MONTH(o.fecha)",
+                (rs, fila) -> new OcupacionMensualDTO(rs.getLong(1), YearMonth.of(rs.getInt(2), rs.getInt(3)),
+                        rs.getLong(4), rs.getLong(5), aImporte(rs.getLong(6))),
+                anfitrionId, desde.atDay(1), hasta.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Recalcula la tabla desde 'reservas', una propiedad por transacción (bloqueando su
+     * fila como al reservar, así nadie reserva esa propiedad mientras se recalcula).
+     * Devuelve cuántas propiedades se recalcularon.
+     */
+    public int reconstruir() {
+        List<Long> propiedadIds = jdbcTemplate.queryForList("SELECT id FROM propiedades ORDER BY id", Long.class);
+        for (Long propiedadId : propiedadIds) {
+            transactionTemplate.executeWithoutResult(estado -> {
+                jdbcTemplate.query("SELECT id FROM propiedades WHERE id = ? FOR UPDATE", rs -> { }, propiedadId);
+                jdbcTemplate.update("DELETE FROM ocupacion_diaria WHERE propiedad_id = ?", propiedadId);
+                sumar(estadiasDe(propiedadId), 1);
+            });
+        }
+        return propiedadIds.size();
+    }
+
+    /**
+     * Indica si la tabla todavía no se llenó: hay reservas pero ningún contador
+     * (la base venía de antes de V5 y nunca se reconstruyó).
+     */
+    public boolean faltaCargar() {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM reservas LIMIT 1", Integer.class).isEmpty()
+                && jdbcTemplate.queryForList("SELECT 1 FROM ocupacion_diaria LIMIT 1", Integer.class).isEmpty();
+    }
+
+    /**
+     * Compara la tabla con lo que da recalcularla desde 'reservas'.
+     * Devuelve los IDs de las propiedades que no coinciden (vacío si está todo bien).
+     */
+    public List<Long> verificar() {
+        List<Long> distintas = new ArrayList<>();
+        for (Long propiedadId : jdbcTemplate.queryForList("SELECT id FROM propiedades ORDER BY id", Long.class)) {
+            Boolean coincide = transactionTemplate.execute(estado -> {
+                Map<LocalDate, List<Long>> esperado = comparable(
+                        contar(estadiasDe(propiedadId), 1).getOrDefault(propiedadId, new TreeMap<>()));
+                Map<LocalDate, List<Long>> guardado = new HashMap<>();
+                jdbcTemplate.query("SELECT fecha, noches, llegadas, ingresos_centavos FROM ocupacion_diaria WHERE propiedad_id = ?",
+                        rs -> {
+                            List<Long> contadores = List.of(rs.getLong(2), rs.getLong(3), rs.getLong(4));
+                            if (!contadores.equals(List.of(0L, 0L, 0L))) {
+                                guardado.put(rs.getObject(1, LocalDate.class), contadores);
+                            }
+                        },
+                        propiedadId);
+                return esperado.equals(guardado);
+            });
+            if (!Boolean.TRUE.equals(coincide)) {
+                distintas.add(propiedadId);
+            }
+        }
+        return distintas;
+    }
+
+    // --- Métodos Privados ---
+
+    // Suma (o resta, con signo -1) los contadores de las estadías, en orden de propiedad y fecha
+    private void sumar(Collection<Estadia> estadias, int signo) {
+        List<Object[]> filas = new ArrayList<>();
+        contar(estadias, signo).forEach((propiedadId, dias) -> dias.forEach((fecha, contadores) ->
+                filas.add(new Object[] { propiedadId, fecha, contadores[NOCHES], contadores[LLEGADAS], contadores[INGRESOS] })));
+        if (!filas.isEmpty()) {
+            jdbcTemplate.batchUpdate(sumar, filas);
+        }
+    }
+
+    // Si no se puede preguntar la versión, la forma con VALUES(columna) anda en todas
+    private static String sentenciaSumar(JdbcTemplate jdbcTemplate) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    metadatos -> sentenciaSumar(metadatos.getDatabaseProductName(), metadatos.getDatabaseProductVersion()));
+        } catch (MetaDataAccessException e) {
+            return SUMAR_CON_VALUES;
+        }
+    }
+
+    // La forma del INSERT ... ON DUPLICATE KEY UPDATE que entiende la base de datos
+    // (el driver de MySQL conectado a MariaDB dice "MySQL", con "MariaDB" en la versión)
+    static String sentenciaSumar(String producto, String version) {
+        Matcher numeros = VERSION.matcher(version);
+        if (!"MySQL".equalsIgnoreCase(producto) || version.contains("MariaDB") || !numeros.find()) {
+            return SUMAR_CON_VALUES;
+        }
+        int mayor = Integer.parseInt(numeros.group(1));
+        int menor = Integer.parseInt(numeros.group(2));
+        int parche = Integer.parseInt(numeros.group(3));
+        boolean conAlias = mayor > 8 || (mayor == 8 && (menor > 0 || parche >= 19));
+        return conAlias ? SUMAR_CON_ALIAS : SUMAR_CON_VALUES;
+    }
+
+    // Los contadores de cada (propiedad, día) que aportan las estadías
+    private static SortedMap<Long, SortedMap<LocalDate, long[]>> contar(Collection<Estadia> estadias, int signo) {
+        SortedMap<Long, SortedMap<LocalDate, long[]>> porPropiedad = new TreeMap<>();
+        for (Estadia estadia : estadias) {
+            long noches = ChronoUnit.DAYS.between(estadia.fechaInicio(), estadia.fechaFin());
+            if (noches <= 0) {
+                continue;
+            }
+            // El precio repartido entre las noches; los centavos que sobran, uno a cada una de las primeras
+            long centavos = Math.round(estadia.precioTotal() * 100);
+            long porNoche = centavos / noches;
+            long sobrante = centavos % noches;
+
+            SortedMap<LocalDate, long[]> dias = porPropiedad.computeIfAbsent(estadia.propiedadId(), id -> new TreeMap<>());
+            LocalDate fecha = estadia.fechaInicio();
+            for (long i = 0; i < noches; i++, fecha = fecha.plusDays(1)) {
+                long[] contadores = dias.computeIfAbsent(fecha, f -> new long[3]);
+                contadores[NOCHES] += signo;
+                contadores[INGRESOS] += signo * (porNoche + (i < sobrante ? 1 : 0));
+                if (i == 0) {
+                    contadores[LLEGADAS] += signo;
+                }
+            }
+        }
+        return porPropiedad;
+    }
+
+    private List<Estadia> estadiasDe(Long propiedadId) {
+        return jdbcTemplate.query("SELECT fecha_inicio, fecha_fin, precio_total FROM reservas WHERE propiedad_id = ?",
+                (rs, fila) -> new Estadia(propiedadId, rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class),
+                        rs.getDouble(3)),
+                propiedadId);
+    }
+
+    // Los contadores de una propiedad en una forma que se puede comparar con equals (sin los días en cero)
+    private static Map<LocalDate, List<Long>> comparable(SortedMap<LocalDate, long[]> dias) {
+        Map<LocalDate, List<Long>> resultado = new HashMap<>();
+        dias.forEach((fecha, contadores) -> {
+            List<Long> valores = List.of(contadores[NOCHES], contadores[LLEGADAS], contadores[INGRESOS]);
+            if (!valores.equals(List.of(0L, 0L, 0L))) {
+                resultado.put(fecha, valores);
+            }
+        });
+        return resultado;
+    }
+
+    private static double aImporte(long centavos) {
+        return centavos / 100.0;
+    }
+}
@@ -4,31 +4,45 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.openlodge.model.Servicio;
 import com.example.openlodge.repository.ServicioRepository;
+import com.example.openlodge.service.CacheLecturasService.RespuestaCacheada;
 
 @Service
 public class ServicioService {
     private final ServicioRepository servicioRepository;
+    private final CacheLecturasService cacheLecturas;
 
     @Autowired
-    public ServicioService(ServicioRepository servicioRepository) {
+    public ServicioService(ServicioRepository servicioRepository, CacheLecturasService cacheLecturas) {
         this.servicioRepository = servicioRepository;
+        this.cacheLecturas = cacheLecturas;
     }
 
     /**
      * Obtiene la lista completa de servicios disponibles en el sistema
      */
+    @Transactional(readOnly = true)
     public List<Servicio> obtenerTodosLosServicios() {
         return servicioRepository.findAll();
     }
 
+    /**
+     * El catálogo de servicios ya serializado (desde la caché si está)
+     */
+    public RespuestaCacheada obtenerCatalogoServicios() {
+        return cacheLecturas.catalogoServicios(this::obtenerTodosLosServicios);
+    }
+
     /**
      * Crea un nuevo servicio maestro
      */
     public Servicio crearServicio(Servicio servicio) {
         // Podríamos agregar validación para que no se repita el nombre
-        return servicioRepository.save(servicio);
+        Servicio guardado = servicioRepository.save(servicio);
+        cacheLecturas.invalidarServicios();
+        return guardado;
     }
 }
@@ -0,0 +1,123 @@
+package com.example.openlodge.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Caché de tokens JWT ya validados.
+ *
+ * La primera vez que llega un token lo validamos "de verdad" (firma, expiración
+ * y usuario en la BD). Las siguientes veces respondemos desde memoria: cero
+ * parseos y cero consultas a la BD.
+ *
+ * - La clave es un hash SHA-256 del token (no guardamos el token en sí).
+ * - Cada entrada vence exactamente cuando vence el token ('exp').
+ * - Tiene un tamaño máximo; si se llena, Caffeine descarta las menos usadas.
+ */
+@Service
+public class TokenCacheService {
+    private final Cache<String, TokenValidado> cache;
+
+    @Autowired
+    public TokenCacheService(@Value("${jwt.cache.max-entradas:10000}") long maxEntradas) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfter(new ExpiraConElToken())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Devuelve el resultado cacheado para este token, o null si no está (o ya venció)
+     */
+    public TokenValidado obtener(String token) {
+        return cache.getIfPresent(hash(token));
+    }
+
+    /**
+     * Email del usuario de un token ya validado, o null si no está en la caché.
+     * No cuenta como acierto ni fallo en las estadísticas (lo usa el limitador
+     * de peticiones, antes de que JwtAuthFilter haga la consulta "de verdad").
+     */
+    public String usuarioDelToken(String token) {
+        TokenValidado validado = cache.asMap().get(hash(token));
+        return validado == null ? null : validado.getUserDetails().getUsername();
+    }
+
+    /**
+     * Guarda un token que acabamos de validar, hasta su fecha de expiración
+     */
+    public void guardar(String token, UserDetails userDetails, Date expiracion) {
+        cache.put(hash(token), new TokenValidado(userDetails, expiracion.getTime()));
+    }
+
+    /**
+     * Borra todos los tokens cacheados de un usuario.
+     * Hay que llamarlo cuando cambian sus datos (contraseña, rol, etc.)
+     * para que el próximo request vuelva a cargarlo de la BD.
+     */
+    public void invalidarUsuario(String email) {
+        cache.asMap().values().removeIf(validado -> validado.getUserDetails().getUsername().equalsIgnoreCase(email));
+    }
+
+    public Cache<String, TokenValidado> getCache() {
+        return cache;
+    }
+
+    // --- Métodos Privados ---
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM, no debería pasar nunca
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Resultado de validar un token: el usuario y cuándo vence (en milisegundos)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TokenValidado {
+        private final UserDetails userDetails;
+        private final long expiraEnMillis;
+    }
+
+    // Le dice a Caffeine que cada entrada vive hasta el 'exp' de su token
+    private static class ExpiraConElToken implements Expiry<String, TokenValidado> {
+        @Override
+        public long expireAfterCreate(String clave, TokenValidado valor, long tiempoActual) {
+            long restanteMillis = valor.getExpiraEnMillis() - System.currentTimeMillis();
+            return Math.max(0, restanteMillis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String clave, TokenValidado valor, long tiempoActual, long duracionActual) {
+            return expireAfterCreate(clave, valor, tiempoActual);
+        }
+
+        @Override
+        public long expireAfterRead(String clave, TokenValidado valor, long tiempoActual, long duracionActual) {
+            return duracionActual;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.openlodge.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ayudantes para atar cambios en memoria (cachés, índices) a la transacción actual.
+ */
+final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Ejecuta la acción después del commit de la transacción actual (o ya mismo si no hay
+     * transacción). Si la transacción se deshace, la acción no corre: la memoria nunca
+     * "ve" un cambio que la BD no guardó.
+     */
+    static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -7,19 +7,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.openlodge.repository.UsuarioRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UsuarioRepository usuarioRepository;
+    private final TokenCacheService tokenCacheService;
 
     @Autowired
-    public UserDetailsServiceImpl(UsuarioRepository usuarioRepository) {
+    public UserDetailsServiceImpl(UsuarioRepository usuarioRepository, TokenCacheService tokenCacheService) {
         this.usuarioRepository = usuarioRepository;
+        this.tokenCacheService = tokenCacheService;
     }
 
     /**
@@ -46,4 +50,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 authorities
         );
     }
+
+    /**
+     * Spring Security lo llama después de un login exitoso cuando el hash
+     * guardado quedó con un costo de BCrypt menor al configurado:
+     * guardamos el hash nuevo (ya calculado) en lugar del viejo.
+     * Los tokens cacheados del usuario guardan sus datos viejos: se descartan al confirmar.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        var usuario = usuarioRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + user.getUsername()));
+        usuario.setPassword(newPassword);
+        usuarioRepository.save(usuario);
+        Transacciones.alConfirmar(() -> tokenCacheService.invalidarUsuario(usuario.getEmail()));
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,69 @@
+-- =======================================
+--  V1: ESQUEMA INICIAL
+-- =======================================
+-- Es el mismo esquema que generaba Hibernate con ddl-auto=update.
+-- En una base que ya existía, Flyway NO corre este script: la marca como
+-- versión 1 (spring.flyway.baseline-on-migrate) y sigue desde la V2.
+
+create table usuarios (
+    id bigint not null auto_increment,
+    nombre varchar(255) not null,
+    apellido varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    rol varchar(255) not null,
+    primary key (id),
+    constraint uk_usuarios_email unique (email)
+);
+
+create table servicios (
+    id bigint not null auto_increment,
+    nombre varchar(255) not null,
+    costo float(53) not null,
+    primary key (id),
+    constraint uk_servicios_nombre unique (nombre)
+);
+
+create table propiedades (
+    id bigint not null auto_increment,
+    titulo varchar(255) not null,
+    descripcion varchar(1000) not null,
+    direccion varchar(255) not null,
+    precio_por_noche float(53) not null,
+    numero_huespedes integer not null,
+    imagen_principal_url varchar(255),
+    anfitrion_id bigint not null,
+    primary key (id)
+);
+
+create table propiedad_x_servicio (
+    propiedad_id bigint not null,
+    servicio_id bigint not null,
+    primary key (propiedad_id, servicio_id)
+);
+
+create table reservas (
+    id bigint not null auto_increment,
+    fecha_inicio date not null,
+    fecha_fin date not null,
+    precio_total float(53) not null,
+    notas varchar(1000),
+    propiedad_id bigint not null,
+    huesped_id bigint not null,
+    primary key (id)
+);
+
+alter table propiedades
+    add constraint fk_propiedades_anfitrion foreign key (anfitrion_id) references usuarios (id);
+
+alter table propiedad_x_servicio
+    add constraint fk_propiedad_x_servicio_propiedad foreign key (propiedad_id) references propiedades (id);
+
+alter table propiedad_x_servicio
+    add constraint fk_propiedad_x_servicio_servicio foreign key (servicio_id) references servicios (id);
+
+alter table reservas
+    add constraint fk_reservas_propiedad foreign key (propiedad_id) references propiedades (id);
+
+alter table reservas
+    add constraint fk_reservas_huesped foreign key (huesped_id) references usuarios (id);
@@ -0,0 +1,18 @@
+-- =======================================
+--  V2: ÍNDICES PARA LAS CONSULTAS FRECUENTES
+-- =======================================
+-- (En MySQL, al crear un índice que sirve para una clave foránea, se borra
+--  solo el índice que MySQL había creado automáticamente para esa FK.)
+
+-- Superposición de fechas (findOverlappingReservas, índice de disponibilidad, búsqueda):
+-- WHERE propiedad_id = ? AND fecha_inicio < ? AND fecha_fin > ?
+create index idx_reservas_propiedad_fechas on reservas (propiedad_id, fecha_inicio, fecha_fin);
+
+-- Reservas de un huésped (findByHuespedId)
+create index idx_reservas_huesped on reservas (huesped_id);
+
+-- Propiedades de un anfitrión (findByAnfitrionId, findByPropiedadAnfitrionId)
+create index idx_propiedades_anfitrion on propiedades (anfitrion_id);
+
+-- Del servicio hacia sus propiedades (filtro por servicios de la búsqueda)
+create index idx_propiedad_x_servicio_servicio on propiedad_x_servicio (servicio_id);
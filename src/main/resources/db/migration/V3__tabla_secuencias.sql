@@ -0,0 +1,11 @@
+-- =======================================
+--  V3: TABLA DE SECUENCIAS (modo IDs por bloques)
+-- =======================================
+-- La usa el perfil "ids-por-bloques" (META-INF/ids-por-bloques.xml).
+-- "if not exists" porque en una base vieja la pudo haber creado Hibernate.
+-- Las filas las crea AlineadorSecuencias al arrancar en ese modo.
+create table if not exists secuencias (
+    entidad varchar(255) not null,
+    siguiente bigint,
+    primary key (entidad)
+);
@@ -0,0 +1,13 @@
+-- =======================================
+--  V4: LATIDO DE REPLICACIÓN (perfil "replicas")
+-- =======================================
+-- Una sola fila: DataSourceConReplicas escribe la hora actual (epoch en ms) en
+-- la primaria cada pocos segundos y la lee en cada réplica. La diferencia entre
+-- lo último que escribió y lo que ve la réplica es su retraso de replicación.
+create table latido_replicacion (
+    id int not null,
+    instante_ms bigint not null,
+    primary key (id)
+);
+
+insert into latido_replicacion (id, instante_ms) values (1, 0);
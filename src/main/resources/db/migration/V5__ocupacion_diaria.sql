@@ -0,0 +1,20 @@
+-- =======================================
+--  V5: RESUMEN DE OCUPACIÓN POR PROPIEDAD Y DÍA
+-- =======================================
+-- Contadores por (propiedad, día) que los reportes leen en vez de recorrer 'reservas'.
+-- Los mantiene ResumenOcupacion en la MISMA transacción que crea o cancela cada reserva.
+-- Para llenarla con las reservas que ya existían: arrancar con ocupacion.reconstruir=true
+create table ocupacion_diaria (
+    propiedad_id bigint not null,
+    fecha date not null,
+    -- Reservas que ocupan la noche de 'fecha' (0 o 1, salvo reservas importadas superpuestas)
+    noches int not null,
+    -- Reservas que empiezan (check-in) ese día
+    llegadas int not null,
+    -- Lo cobrado por esa noche, en centavos (cada reserva reparte su precio entre sus noches)
+    ingresos_centavos bigint not null,
+    primary key (propiedad_id, fecha)
+);
+
+alter table ocupacion_diaria
+    add constraint fk_ocupacion_diaria_propiedad foreign key (propiedad_id) references propiedades (id);
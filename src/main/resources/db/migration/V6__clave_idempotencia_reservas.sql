@@ -0,0 +1,12 @@
+-- =======================================
+--  V6: CLAVE DE IDEMPOTENCIA EN LAS RESERVAS
+-- =======================================
+-- Las reservas asincrónicas (ColaReservas) guardan la clave que mandó el cliente en
+-- la misma transacción que crean la reserva. Si la app se cae antes de anotar el
+-- resultado en el diario, al reprocesar la solicitud se encuentra la reserva por su
+-- clave en vez de chocar con ella. Las reservas sincrónicas la dejan en null.
+alter table reservas add column clave_idempotencia varchar(100);
+
+-- Una clave por huésped (los null no chocan entre sí)
+alter table reservas
+    add constraint uk_reservas_huesped_clave unique (huesped_id, clave_idempotencia);
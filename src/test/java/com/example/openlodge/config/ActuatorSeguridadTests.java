@@ -0,0 +1,47 @@
+package com.example.openlodge.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/**
+ * Actuator atiende en su propio puerto local: en el de la API sólo quedan las sondas de salud.
+ */
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+class ActuatorSeguridadTests {
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int puertoApi;
+
+    @LocalManagementPort
+    private int puertoActuator;
+
+    @Test
+    void lasMetricasNoSeVenDesdeElPuertoDeLaApi() throws Exception {
+        assertThat(estado(puertoApi, "/actuator/prometheus")).isEqualTo(403);
+        assertThat(estado(puertoApi, "/actuator/metrics")).isEqualTo(403);
+        assertThat(estado(puertoApi, "/livez")).isEqualTo(200);
+        assertThat(estado(puertoApi, "/readyz")).isEqualTo(200);
+
+        assertThat(estado(puertoActuator, "/actuator/prometheus")).isEqualTo(200);
+        assertThat(estado(puertoActuator, "/actuator/health")).isEqualTo(200);
+    }
+
+    private int estado(int puerto, String ruta) throws IOException, InterruptedException {
+        HttpRequest pedido = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + puerto + ruta)).build();
+        return cliente.send(pedido, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.openlodge.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.openlodge.model.Servicio;
+import com.example.openlodge.service.ServicioService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Modo réplicas con dos bases H2 en memoria: una hace de primaria y otra de réplica.
+ * No hay replicación real, así que los tests escriben a mano en la réplica
+ * (incluido el latido, para simularla al día o atrasada).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + DataSourceConReplicasTests.URL_PRIMARIA,
+        "replicas.urls=" + DataSourceConReplicasTests.URL_REPLICA,
+        "replicas.retraso-maximo=1s",
+        "replicas.intervalo-chequeo=50ms" })
+@ActiveProfiles("replicas")
+class DataSourceConReplicasTests {
+
+    static final String URL_PRIMARIA = "jdbc:h2:mem:replicas_primaria;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String URL_REPLICA = "jdbc:h2:mem:replicas_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void crearReplica() {
+        // La réplica tiene el mismo esquema que la primaria (en producción lo trae la replicación)
+        Flyway.configure().dataSource(URL_REPLICA, "sa", "").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", ""));
+    }
+
+    @Test
+    void lasLecturasVanALaReplicaYLasEscriturasALaPrimaria() throws Exception {
+        replica.update("INSERT INTO servicios (nombre, costo) VALUES ('Sauna (réplica)', 1)");
+        simularReplicaAlDia();
+
+        assertThat(nombres(servicioService.obtenerTodosLosServicios())).contains("Sauna (réplica)");
+
+        servicioService.crearServicio(new Servicio(null, "Gimnasio (primaria)", 2.0, new HashSet<>()));
+        assertThat(contar(jdbcTemplate, "Gimnasio (primaria)")).isEqualTo(1);
+        assertThat(contar(replica, "Gimnasio (primaria)")).isZero();
+
+        // Cada pool publica sus métricas con su nombre
+        assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "primaria").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "replica-1").gauge()).isNotNull();
+    }
+
+    @Test
+    void conLaReplicaAtrasadaLasLecturasVanALaPrimaria() throws Exception {
+        replica.update("INSERT INTO servicios (nombre, costo) VALUES ('Spa (réplica)', 1)");
+        simularReplicaAlDia();
+        double desviosAntes = meterRegistry.get("replicas.lecturas.en.primaria").counter().count();
+
+        // El latido de la réplica se queda en el pasado: deja de recibir lecturas
+        replica.update("UPDATE latido_replicacion SET instante_ms = ? WHERE id = 1", System.currentTimeMillis() - 60_000);
+        esperar(() -> disponible() == 0);
+
+        assertThat(nombres(servicioService.obtenerTodosLosServicios())).doesNotContain("Spa (réplica)");
+        assertThat(meterRegistry.get("replicas.lecturas.en.primaria").counter().count()).isGreaterThan(desviosAntes);
+        assertThat(meterRegistry.get("replicas.retraso").tag("replica", "replica-1").gauge().value()).isGreaterThan(1);
+    }
+
+    // --- Métodos Privados ---
+
+    // Un latido "del futuro" en la réplica: para el monitor siempre está al día
+    private void simularReplicaAlDia() throws InterruptedException {
+        replica.update("UPDATE latido_replicacion SET instante_ms = ? WHERE id = 1", Long.MAX_VALUE);
+        esperar(() -> disponible() == 1);
+    }
+
+    private double disponible() {
+        return meterRegistry.get("replicas.disponible").tag("replica", "replica-1").gauge().value();
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("tiempo de espera del monitor").isLessThan(limite);
+            Thread.sleep(20);
+        }
+    }
+
+    private static List<String> nombres(List<Servicio> servicios) {
+        return servicios.stream().map(Servicio::getNombre).toList();
+    }
+
+    private static int contar(JdbcTemplate jdbc, String nombre) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM servicios WHERE nombre = ?", Integer.class, nombre);
+    }
+}
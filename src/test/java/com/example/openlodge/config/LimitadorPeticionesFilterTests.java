@@ -0,0 +1,121 @@
+package com.example.openlodge.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+
+import com.example.openlodge.service.TokenCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Cuotas por cliente (429) y límite de concurrencia (503) del limitador.
+ */
+class LimitadorPeticionesFilterTests {
+
+    private SimpleMeterRegistry registry;
+    private TokenCacheService tokenCacheService;
+    private AtomicInteger atendidas;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        tokenCacheService = new TokenCacheService(100);
+        atendidas = new AtomicInteger();
+    }
+
+    @Test
+    void elLoginSeCortaPorIpDespuesDeLaRafaga() throws Exception {
+        // Login: 1 por minuto con ráfaga de 3
+        LimitadorPeticionesFilter limitador = limitador(10, 1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(pedir(limitador, "POST", "/api/auth/login", "10.0.0.1", null).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rechazada = pedir(limitador, "POST", "/api/auth/login", "10.0.0.1", null);
+
+        assertThat(rechazada.getStatus()).isEqualTo(429);
+        assertThat(rechazada.getHeader("Retry-After")).isNotNull();
+        // Otra IP tiene su propio balde, y las demás rutas su propia cuota
+        assertThat(pedir(limitador, "POST", "/api/auth/login", "10.0.0.2", null).getStatus()).isEqualTo(200);
+        assertThat(pedir(limitador, "GET", "/api/propiedades", "10.0.0.1", null).getStatus()).isEqualTo(200);
+        assertThat(atendidas.get()).isEqualTo(5);
+        assertThat(registry.get("limitador.rechazos").tag("ruta", "login").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void conTokenValidadoLaCuotaEsDelUsuarioYNoDeLaIp() throws Exception {
+        LimitadorPeticionesFilter limitador = limitador(10, 1, 2);
+        tokenCacheService.guardar("token-ana", User.withUsername("ana@test.com").password("x").authorities("HUESPED").build(),
+                new Date(System.currentTimeMillis() + 60_000));
+
+        // El mismo usuario desde dos IPs comparte la cuota "general" (ráfaga 2)
+        assertThat(pedir(limitador, "POST", "/api/reservas", "10.0.0.1", "token-ana").getStatus()).isEqualTo(200);
+        assertThat(pedir(limitador, "POST", "/api/reservas", "10.0.0.2", "token-ana").getStatus()).isEqualTo(200);
+        assertThat(pedir(limitador, "POST", "/api/reservas", "10.0.0.3", "token-ana").getStatus()).isEqualTo(429);
+        // Un token que nunca se validó cuenta por IP
+        assertThat(pedir(limitador, "POST", "/api/reservas", "10.0.0.1", "token-falso").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void sinLugarEnLaApiRespondeServicioNoDisponible() throws Exception {
+        LimitadorPeticionesFilter limitador = limitador(1, 100, 100);
+        MockHttpServletResponse[] anidada = new MockHttpServletResponse[1];
+
+        // Mientras la primera petición está en curso, llega otra: no hay lugar
+        MockHttpServletResponse primera = pedir(limitador, "GET", "/api/servicios", "10.0.0.1", null,
+                (request, response) -> anidada[0] = pedir(limitador, "GET", "/api/servicios", "10.0.0.2", null));
+
+        assertThat(primera.getStatus()).isEqualTo(200);
+        assertThat(anidada[0].getStatus()).isEqualTo(503);
+        // Al terminar la primera se libera el lugar
+        assertThat(pedir(limitador, "GET", "/api/servicios", "10.0.0.2", null).getStatus()).isEqualTo(200);
+        assertThat(registry.get("limitador.rechazos").tag("motivo", "concurrencia").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void noLimitaFueraDeLaApi() throws Exception {
+        LimitadorPeticionesFilter limitador = limitador(10, 1, 1);
+        for (int i = 0; i < 5; i++) {
+            assertThat(pedir(limitador, "GET", "/actuator/health", "10.0.0.1", null).getStatus()).isEqualTo(200);
+        }
+    }
+
+    // --- Ayudantes ---
+
+    // Mismas cuotas para todas las rutas, para que los tests sean cortos
+    private LimitadorPeticionesFilter limitador(int concurrencia, int porMinuto, int rafaga) {
+        return new LimitadorPeticionesFilter(tokenCacheService, registry, true, concurrencia,
+                porMinuto, rafaga, porMinuto, rafaga, porMinuto, rafaga, porMinuto, rafaga, 1000);
+    }
+
+    private MockHttpServletResponse pedir(LimitadorPeticionesFilter limitador, String metodo, String ruta, String ip,
+            String token) throws IOException, ServletException {
+        return pedir(limitador, metodo, ruta, ip, token, (request, response) -> { });
+    }
+
+    private MockHttpServletResponse pedir(LimitadorPeticionesFilter limitador, String metodo, String ruta, String ip,
+            String token, FilterChain resto) throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, ruta);
+        request.setRemoteAddr(ip);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        limitador.doFilter(request, response, (req, res) -> {
+            atendidas.incrementAndGet();
+            resto.doFilter(req, res);
+        });
+        return response;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.openlodge.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Verifica (con EXPLAIN de H2) que las consultas frecuentes usan los
+ * índices de las migraciones y no recorren la tabla entera.
+ */
+@SpringBootTest
+class IndicesEsquemaTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void laSuperposicionDeFechasUsaElIndiceCompuesto() {
+        String plan = explicar("SELECT r.id FROM reservas r WHERE r.propiedad_id = 1 "
+                + "AND r.fecha_inicio < DATE '2030-01-10' AND r.fecha_fin > DATE '2030-01-05'");
+
+        assertThat(plan).containsIgnoringCase("idx_reservas_propiedad_fechas");
+    }
+
+    // En las búsquedas por clave foránea H2 puede elegir el índice que creó solo
+    // para la FK (equivalente al nuestro): basta con que busque por esa columna
+    @Test
+    void lasReservasDeUnHuespedUsanIndice() {
+        String plan = explicar("SELECT r.id FROM reservas r WHERE r.huesped_id = 1");
+
+        assertThat(plan).containsIgnoringCase("HUESPED_ID = ");
+    }
+
+    @Test
+    void lasPropiedadesDeUnAnfitrionUsanIndice() {
+        String plan = explicar("SELECT p.id FROM propiedades p WHERE p.anfitrion_id = 1 ORDER BY p.id");
+
+        assertThat(plan).containsIgnoringCase("ANFITRION_ID = ");
+    }
+
+    @Test
+    void elLoginPorEmailUsaElIndiceUnico() {
+        String plan = explicar("SELECT u.id FROM usuarios u WHERE u.email = 'a@b.com'");
+
+        assertThat(plan).containsIgnoringCase("uk_usuarios_email");
+    }
+
+    private String explicar(String consulta) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + consulta, String.class);
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        return plan;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * El codificador acota la CPU de los hashes: rechaza rápido cuando se satura
+ * y pide recalcular los hashes guardados con un costo menor.
+ */
+class CodificadorContraseniasTests {
+
+    @Test
+    void verificaYPideRecalcularLosHashesDeCostoMenor() {
+        CodificadorContrasenias codificador = new CodificadorContrasenias(new SimpleMeterRegistry(), 6, 1, 4, Duration.ofSeconds(5));
+        try {
+            String viejo = new BCryptPasswordEncoder(4).encode("secreta");
+            String nuevo = codificador.encode("secreta");
+
+            assertThat(codificador.matches("secreta", viejo)).isTrue();
+            assertThat(codificador.matches("otra", nuevo)).isFalse();
+            assertThat(codificador.upgradeEncoding(viejo)).isTrue();
+            assertThat(codificador.upgradeEncoding(nuevo)).isFalse();
+        } finally {
+            codificador.cerrar();
+        }
+    }
+
+    @Test
+    void conElPoolSaturadoRechazaEnVezDeEncolar() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Un hilo y un lugar en la cola: de muchos hashes simultáneos, la mayoría se rechaza
+        CodificadorContrasenias codificador = new CodificadorContrasenias(registry, 12, 1, 1, Duration.ofSeconds(30));
+        String hash = new BCryptPasswordEncoder(12).encode("secreta");
+        ExecutorService clientes = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> intentos = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                intentos.add(clientes.submit(() -> codificador.matches("secreta", hash)));
+            }
+
+            int aceptados = 0;
+            int rechazados = 0;
+            for (Future<Boolean> intento : intentos) {
+                try {
+                    assertThat(intento.get()).isTrue();
+                    aceptados++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+                    rechazados++;
+                }
+            }
+
+            assertThat(aceptados).isBetween(1, 7);
+            assertThat(rechazados).isEqualTo(8 - aceptados);
+            assertThat(registry.get("contrasenias.rechazos").counter().count()).isEqualTo(rechazados);
+        } finally {
+            clientes.shutdownNow();
+            codificador.cerrar();
+        }
+    }
+
+    @Test
+    void rechazaUnCostoFueraDeRango() {
+        assertThatThrownBy(() -> new CodificadorContrasenias(new SimpleMeterRegistry(), 16, 1, 1, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
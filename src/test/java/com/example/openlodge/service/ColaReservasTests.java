@@ -0,0 +1,208 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.LoteReservaResponse;
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.dto.SolicitudReserva;
+import com.example.openlodge.dto.SolicitudReserva.Estado;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Reservas asincrónicas: idempotencia, orden de llegada por propiedad y el diario
+ * que sobrevive a un reinicio.
+ */
+@SpringBootTest
+class ColaReservasTests {
+
+    private static final LocalDate INICIO = LocalDate.now().plusDays(90);
+
+    @Autowired
+    private ColaReservas colaReservas;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    private Usuario anfitrion;
+    private Usuario huesped;
+    private Propiedad propiedad;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+
+        propiedad = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Cabaña en oferta", 50.0);
+    }
+
+    @Test
+    void laMismaClaveEsLaMismaSolicitudYGanaLaPrimeraEnLlegar() throws Exception {
+        String email = huesped.getEmail();
+        SolicitudReserva primera = colaReservas.aceptar("clave-1", reserva(INICIO, INICIO.plusDays(3)), email);
+        colaReservas.aceptar("clave-2", reserva(INICIO.plusDays(1), INICIO.plusDays(2)), email);
+        colaReservas.aceptar("clave-3", reserva(INICIO.plusDays(5), INICIO.plusDays(6)), email);
+
+        // Un reintento con la misma clave no crea otra solicitud; con otra reserva es un error
+        assertThat(colaReservas.aceptar("clave-1", reserva(INICIO, INICIO.plusDays(3)), email).getAceptada())
+                .isEqualTo(primera.getAceptada());
+        assertThatThrownBy(() -> colaReservas.aceptar("clave-1", reserva(INICIO, INICIO.plusDays(4)), email))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(esperarResultado(colaReservas, "clave-1").getReservaId()).isNotNull();
+        assertThat(esperarResultado(colaReservas, "clave-2").getEstado()).isEqualTo(Estado.CONFLICTO);
+        assertThat(esperarResultado(colaReservas, "clave-3").getEstado()).isEqualTo(Estado.CREADA);
+        assertThat(reservaService.obtenerReservasDeMisPropiedades(anfitrion.getEmail())).hasSize(2);
+    }
+
+    @Test
+    void lasPendientesDelDiarioSeProcesanAlArrancarYLasTerminadasNoSeRepiten(@TempDir Path carpeta) throws Exception {
+        // Una solicitud aceptada justo antes de una caída: está en el diario pero nunca se procesó
+        Path diario = carpeta.resolve("reservas.diario");
+        SolicitudReserva pendiente = new SolicitudReserva("antes-de-caer", huesped.getEmail(),
+                reserva(INICIO, INICIO.plusDays(2)), Estado.PENDIENTE, null, null, Instant.now(), null, null);
+        Files.writeString(diario, objectMapper.writeValueAsString(pendiente) + "\n");
+
+        ColaReservas alArrancar = nuevaCola(diario);
+        Long reservaId = esperarResultado(alArrancar, "antes-de-caer").getReservaId();
+        assertThat(reservaId).isNotNull();
+        alArrancar.detener();
+
+        // Otro reinicio: la clave sigue respondiendo con el mismo resultado y no se reserva de nuevo
+        ColaReservas otraVez = nuevaCola(diario);
+        SolicitudReserva reintento = otraVez.aceptar("antes-de-caer", reserva(INICIO, INICIO.plusDays(2)), huesped.getEmail());
+        otraVez.detener();
+
+        assertThat(reintento.getEstado()).isEqualTo(Estado.CREADA);
+        assertThat(reintento.getReservaId()).isEqualTo(reservaId);
+        assertThat(reservaService.obtenerReservasDeMisPropiedades(anfitrion.getEmail())).hasSize(1);
+        // Compactado: una línea por solicitud
+        assertThat(Files.readAllLines(diario)).hasSize(1);
+    }
+
+    @Test
+    void unLoteConfirmadoSinResultadoEnElDiarioSeReconocePorSuClave(@TempDir Path carpeta) throws Exception {
+        // La caída justo después del commit: la reserva ya existe, pero el diario sólo la tiene PENDIENTE
+        ReservaRequest pedida = reserva(INICIO, INICIO.plusDays(2));
+        Long reservaId = coordinadorReservas.crearReservasDeVariosHuespedes(List.of(pedida),
+                List.of(huesped.getEmail()), List.of("en-la-ventana")).getResultados().get(0).getReservaId();
+        Path diario = carpeta.resolve("reservas.diario");
+        SolicitudReserva pendiente = new SolicitudReserva("en-la-ventana", huesped.getEmail(),
+                pedida, Estado.PENDIENTE, null, null, Instant.now(), null, null);
+        Files.writeString(diario, objectMapper.writeValueAsString(pendiente) + "\n");
+
+        // Al reprocesarla no choca con su propia reserva: es la misma
+        ColaReservas alArrancar = nuevaCola(diario);
+        SolicitudReserva resultado = esperarResultado(alArrancar, "en-la-ventana");
+        alArrancar.detener();
+
+        assertThat(resultado.getEstado()).isEqualTo(Estado.CREADA);
+        assertThat(resultado.getReservaId()).isEqualTo(reservaId);
+        List<Reserva> reservas = reservaService.obtenerReservasDeMisPropiedades(anfitrion.getEmail());
+        assertThat(reservas).hasSize(1);
+        // La clave queda en la BD, pero no se ve en las respuestas
+        assertThat(reservas.get(0).getClaveIdempotencia()).isEqualTo("en-la-ventana");
+        Reserva sinRelaciones = new Reserva();
+        sinRelaciones.setClaveIdempotencia(reservas.get(0).getClaveIdempotencia());
+        assertThat(objectMapper.writeValueAsString(sinRelaciones)).doesNotContain("en-la-ventana");
+    }
+
+    @Test
+    void compactarYReiniciarRespetaElOrdenDeLlegada(@TempDir Path carpeta) throws Exception {
+        // Una cola que no llega a confirmar nada: su único hilo se queda esperando a la "BD"
+        CountDownLatch baseDeDatos = new CountDownLatch(1);
+        CoordinadorReservas colgado = new CoordinadorReservas(reservaService, 64) {
+            @Override
+            public LoteReservaResponse crearReservasDeVariosHuespedes(List<ReservaRequest> reservas,
+                    List<String> emailsHuespedes, List<String> claves) {
+                try {
+                    baseDeDatos.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("La base de datos no responde.");
+            }
+        };
+        Path diario = carpeta.resolve("reservas.diario");
+        ColaReservas antesDeCaer = new ColaReservas(colgado, objectMapper, new SimpleMeterRegistry(), diario.toString(),
+                true, 3, 100, 1, 1, 1, Duration.ofHours(1));
+
+        // Todas piden lo mismo: la que llegó primero es la que tiene que quedarse con las fechas.
+        // Con un diario de 3 líneas, se compacta varias veces mientras llegan
+        for (int i = 0; i < 20; i++) {
+            antesDeCaer.aceptar("orden-" + i, reserva(INICIO, INICIO.plusDays(2)), huesped.getEmail());
+        }
+        CompletableFuture<Void> apagado = CompletableFuture.runAsync(antesDeCaer::detener);
+        Thread.sleep(100);
+        baseDeDatos.countDown();
+        apagado.get();
+        // El número de llegada va al diario, pero no a las respuestas
+        assertThat(Files.readString(diario)).contains("\"secuencia\"");
+        assertThat(objectMapper.writeValueAsString(antesDeCaer.obtener("orden-0", huesped.getEmail())))
+                .doesNotContain("secuencia");
+
+        // Al arrancar de nuevo se procesan en el mismo orden en que llegaron
+        ColaReservas alArrancar = nuevaCola(diario);
+        assertThat(esperarResultado(alArrancar, "orden-0").getEstado()).isEqualTo(Estado.CREADA);
+        for (int i = 1; i < 20; i++) {
+            assertThat(esperarResultado(alArrancar, "orden-" + i).getEstado()).isEqualTo(Estado.CONFLICTO);
+        }
+        alArrancar.detener();
+    }
+
+    // --- Ayudantes ---
+
+    private ColaReservas nuevaCola(Path diario) {
+        return new ColaReservas(coordinadorReservas, objectMapper, new SimpleMeterRegistry(), diario.toString(),
+                true, 1000, 100, 1, 50, 3, Duration.ofHours(1));
+    }
+
+    private SolicitudReserva esperarResultado(ColaReservas cola, String clave) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        SolicitudReserva solicitud = cola.obtener(clave, huesped.getEmail());
+        while (solicitud.getEstado() == Estado.PENDIENTE) {
+            assertThat(System.currentTimeMillis()).as("tiempo de espera de la cola").isLessThan(limite);
+            Thread.sleep(20);
+            solicitud = cola.obtener(clave, huesped.getEmail());
+        }
+        return solicitud;
+    }
+
+    private ReservaRequest reserva(LocalDate inicio, LocalDate fin) {
+        return DatosDePrueba.reserva(propiedad.getId(), inicio, fin);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.ReservaImportada;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ReservaRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Las validaciones de "¿hay reservas?" no pueden cargar el historial de la
+ * propiedad: se mide la memoria asignada por llamada sobre una propiedad
+ * con 10.000 reservas.
+ */
+@SpringBootTest
+class ConsultasReservaTests {
+
+    private static final int RESERVAS_HISTORICAS = 10_000;
+
+    // Cargar las 10.000 entidades asigna unos 14 MB por llamada. Con la consulta de
+    // existencia queda en ~2 MB, casi todo de H2 al deshacer la transacción (borrar falla)
+    private static final long MAXIMO_BYTES_POR_LLAMADA = 4 * 1024 * 1024;
+
+    @Autowired
+    private PropiedadService propiedadService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Usuario anfitrion;
+    private Usuario huesped;
+    private Propiedad propiedad;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+        propiedad = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Casa con historia", 50.0);
+
+        // Una reserva de una noche por día, todas en el pasado
+        LocalDate primera = LocalDate.of(1990, 1, 1);
+        List<ReservaImportada> historial = new ArrayList<>();
+        for (int i = 0; i < RESERVAS_HISTORICAS; i++) {
+            LocalDate inicio = primera.plusDays(i);
+            historial.add(new ReservaImportada(propiedad.getId(), huesped.getId(), inicio, inicio.plusDays(1), 50.0, null));
+        }
+        importacionService.importarReservas(historial);
+        assertThat(DatosDePrueba.reservasDe(reservaRepository, propiedad.getId())).hasSize(RESERVAS_HISTORICAS);
+    }
+
+    @Test
+    void borrarPropiedadConHistorialNoCargaLasReservas() {
+        Runnable borrar = () -> assertThatThrownBy(
+                () -> propiedadService.borrarPropiedad(propiedad.getId(), anfitrion.getEmail()))
+                .isInstanceOf(IllegalStateException.class);
+
+        borrar.run(); // calentamiento (planes de consulta, clases)
+        assertThat(bytesAsignados(borrar)).isLessThan(MAXIMO_BYTES_POR_LLAMADA);
+    }
+
+    @Test
+    void crearReservaEnPropiedadConHistorialNoCargaLasReservas() {
+        LocalDate inicio = LocalDate.now().plusDays(30);
+        reservaService.crearReserva(DatosDePrueba.reserva(propiedad.getId(), inicio, inicio.plusDays(2)), huesped.getEmail()); // calentamiento
+
+        LocalDate otroInicio = inicio.plusDays(5);
+        long bytes = bytesAsignados(() -> reservaService.crearReserva(
+                DatosDePrueba.reserva(propiedad.getId(), otroInicio, otroInicio.plusDays(2)), huesped.getEmail()));
+
+        assertThat(bytes).isLessThan(MAXIMO_BYTES_POR_LLAMADA);
+        assertThat(DatosDePrueba.reservasDe(reservaRepository, propiedad.getId())).hasSize(RESERVAS_HISTORICAS + 2);
+    }
+
+    // --- Ayudantes ---
+
+    // Bytes que asignó el hilo actual mientras corría la acción
+    private static long bytesAsignados(Runnable accion) {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long antes = hilos.getCurrentThreadAllocatedBytes();
+        accion.run();
+        return hilos.getCurrentThreadAllocatedBytes() - antes;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.LoteReservaRequest;
+import com.example.openlodge.dto.LoteReservaResponse;
+import com.example.openlodge.dto.ModoLote;
+import com.example.openlodge.dto.RangoReserva;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ReservaRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Prueba de estrés del coordinador: muchas peticiones simultáneas
+ * no pueden generar reservas dobles.
+ */
+@SpringBootTest
+class CoordinadorReservasTests {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private ExecutorService pool;
+    private Usuario anfitrion;
+    private Usuario huesped;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(HILOS);
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void mismaPropiedadYMismasFechasSoloUnaReservaGana() throws Exception {
+        Propiedad propiedad = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Casa de prueba", 50.0);
+        LocalDate inicio = LocalDate.now().plusDays(10);
+        AtomicInteger conflictos = new AtomicInteger();
+
+        List<Callable<Reserva>> tareas = new ArrayList<>();
+        for (int i = 0; i < HILOS * 4; i++) {
+            tareas.add(() -> {
+                try {
+                    return coordinadorReservas.crearReserva(
+                            DatosDePrueba.reserva(propiedad.getId(), inicio, inicio.plusDays(3)), huesped.getEmail());
+                } catch (IllegalStateException e) {
+                    conflictos.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+        long creadas = 0;
+        for (Future<Reserva> resultado : pool.invokeAll(tareas)) {
+            if (resultado.get() != null) {
+                creadas++;
+            }
+        }
+
+        assertThat(creadas).isEqualTo(1);
+        assertThat(conflictos.get()).isEqualTo(HILOS * 4 - 1);
+        assertThat(DatosDePrueba.reservasDe(reservaRepository, propiedad.getId())).hasSize(1);
+    }
+
+    @Test
+    void fechasSolapadasEnParaleloNoGeneranReservasDobles() throws Exception {
+        Propiedad propiedad = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Casa de prueba", 50.0);
+        LocalDate base = LocalDate.now().plusDays(30);
+
+        // Rangos de 3 noches que empiezan cada día: cada uno choca con sus vecinos
+        List<Callable<Reserva>> tareas = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            LocalDate inicio = base.plusDays(i);
+            tareas.add(() -> {
+                try {
+                    return coordinadorReservas.crearReserva(
+                            DatosDePrueba.reserva(propiedad.getId(), inicio, inicio.plusDays(3)), huesped.getEmail());
+                } catch (IllegalStateException e) {
+                    return null;
+                }
+            });
+        }
+        pool.invokeAll(tareas);
+
+        assertSinSuperposiciones(DatosDePrueba.reservasDe(reservaRepository, propiedad.getId()));
+    }
+
+    @Test
+    void propiedadesDistintasReservanEnParalelo() throws Exception {
+        int reservasPorPropiedad = 20;
+        List<Propiedad> lista = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            lista.add(DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Casa de prueba", 50.0));
+        }
+        LocalDate base = LocalDate.now().plusDays(100);
+
+        // Todos los hilos a la vez, cada uno con su propiedad (cuánto escala lo mide
+        // ReservaBenchmark.propiedadesDistintas*; acá sólo que ninguna se pierda ni se pise)
+        for (Future<Reserva> resultado : pool.invokeAll(tareasPorPropiedad(lista, base, reservasPorPropiedad))) {
+            resultado.get();
+        }
+
+        for (Propiedad propiedad : lista) {
+            List<RangoReserva> reservas = DatosDePrueba.reservasDe(reservaRepository, propiedad.getId());
+            assertThat(reservas).hasSize(reservasPorPropiedad);
+            assertSinSuperposiciones(reservas);
+        }
+    }
+
+    @Test
+    void lotesConPropiedadesCompartidasNoSeTrabanNiDuplican() throws Exception {
+        List<Propiedad> propiedades = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            propiedades.add(DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Casa de prueba", 50.0));
+        }
+        LocalDate inicio = LocalDate.now().plusDays(200);
+
+        // Todos los lotes piden las mismas 4 propiedades y fechas, la mitad en orden inverso
+        List<Callable<LoteReservaResponse>> tareas = new ArrayList<>();
+        for (int i = 0; i < HILOS * 2; i++) {
+            List<Propiedad> orden = new ArrayList<>(propiedades);
+            if (i % 2 == 1) {
+                Collections.reverse(orden);
+            }
+            LoteReservaRequest lote = new LoteReservaRequest();
+            lote.setModo(ModoLote.MEJOR_ESFUERZO);
+            for (Propiedad propiedad : orden) {
+                lote.getReservas().add(DatosDePrueba.reserva(propiedad.getId(), inicio, inicio.plusDays(2)));
+            }
+            tareas.add(() -> coordinadorReservas.crearReservasEnLote(lote, huesped.getEmail()));
+        }
+
+        int creadas = 0;
+        for (Future<LoteReservaResponse> resultado : pool.invokeAll(tareas, 60, TimeUnit.SECONDS)) {
+            creadas += resultado.get().getCreadas();
+        }
+
+        assertThat(creadas).isEqualTo(propiedades.size());
+        for (Propiedad propiedad : propiedades) {
+            assertThat(DatosDePrueba.reservasDe(reservaRepository, propiedad.getId())).hasSize(1);
+        }
+    }
+
+    // --- Ayudantes ---
+
+    private List<Callable<Reserva>> tareasPorPropiedad(List<Propiedad> propiedades, LocalDate base, int cantidad) {
+        List<Callable<Reserva>> tareas = new ArrayList<>();
+        for (Propiedad propiedad : propiedades) {
+            tareas.add(() -> {
+                Reserva ultima = null;
+                for (int i = 0; i < cantidad; i++) {
+                    LocalDate inicio = base.plusDays(i * 2L);
+                    ultima = coordinadorReservas.crearReserva(
+                            DatosDePrueba.reserva(propiedad.getId(), inicio, inicio.plusDays(2)), huesped.getEmail());
+                }
+                return ultima;
+            });
+        }
+        return tareas;
+    }
+
+    private void assertSinSuperposiciones(List<RangoReserva> reservas) {
+        for (int i = 0; i < reservas.size(); i++) {
+            for (int j = i + 1; j < reservas.size(); j++) {
+                RangoReserva a = reservas.get(i);
+                RangoReserva b = reservas.get(j);
+                boolean seSuperponen = a.getFechaInicio().isBefore(b.getFechaFin())
+                        && a.getFechaFin().isAfter(b.getFechaInicio());
+                assertThat(seSuperponen)
+                        .as("Reservas %s-%s y %s-%s se superponen",
+                                a.getFechaInicio(), a.getFechaFin(), b.getFechaInicio(), b.getFechaFin())
+                        .isFalse();
+            }
+        }
+    }
+}
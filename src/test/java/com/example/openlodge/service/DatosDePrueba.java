@@ -0,0 +1,65 @@
+package com.example.openlodge.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.openlodge.dto.RangoReserva;
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ReservaRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Ayudantes para cargar datos en los tests: usuarios (con email único),
+ * propiedades y pedidos de reserva, y para revisar las reservas guardadas
+ */
+final class DatosDePrueba {
+
+    // Anterior a cualquier reserva que cargan los tests (el historial importado arranca en 1990)
+    private static final LocalDate PRINCIPIO = LocalDate.of(1900, 1, 1);
+
+    private DatosDePrueba() {
+    }
+
+    static Usuario crearUsuario(UsuarioRepository usuarioRepository, String rol) {
+        String email = rol.toLowerCase() + "-" + UUID.randomUUID() + "@test.com";
+        return usuarioRepository.save(new Usuario(null, "Test", rol, email, "x", rol));
+    }
+
+    /**
+     * Una propiedad sin guardar (también sirve como "datos nuevos" para actualizarPropiedad)
+     */
+    static Propiedad nuevaPropiedad(Usuario anfitrion, String titulo, double precioPorNoche) {
+        Propiedad propiedad = new Propiedad();
+        propiedad.setTitulo(titulo);
+        propiedad.setDescripcion("Descripción");
+        propiedad.setDireccion("Calle 123");
+        propiedad.setPrecioPorNoche(precioPorNoche);
+        propiedad.setNumeroHuespedes(4);
+        propiedad.setAnfitrion(anfitrion);
+        return propiedad;
+    }
+
+    static Propiedad crearPropiedad(PropiedadRepository propiedadRepository, Usuario anfitrion, String titulo,
+            double precioPorNoche) {
+        return propiedadRepository.save(nuevaPropiedad(anfitrion, titulo, precioPorNoche));
+    }
+
+    static ReservaRequest reserva(Long propiedadId, LocalDate inicio, LocalDate fin) {
+        ReservaRequest request = new ReservaRequest();
+        request.setPropiedadId(propiedadId);
+        request.setFechaInicio(inicio);
+        request.setFechaFin(fin);
+        return request;
+    }
+
+    /**
+     * Los rangos de todas las reservas guardadas de una propiedad
+     */
+    static List<RangoReserva> reservasDe(ReservaRepository reservaRepository, Long propiedadId) {
+        return reservaRepository.findRangosByPropiedadId(propiedadId, PRINCIPIO);
+    }
+}
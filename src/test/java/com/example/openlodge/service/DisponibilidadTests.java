@@ -0,0 +1,130 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.DisponibilidadDTO;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ReservaRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Calendario de disponibilidad: los mapas de bits por mes, las estadías que cruzan
+ * de un mes a otro, la caché de meses cuando se reserva o se cancela, y que un
+ * "ocupado" del índice en memoria no alcanza para rechazar una reserva.
+ */
+@SpringBootTest
+class DisponibilidadTests {
+
+    @Autowired
+    private PropiedadService propiedadService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private IndiceDisponibilidad indiceDisponibilidad;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Usuario huesped;
+    private Propiedad propiedad;
+    // Un mes futuro de 31 días (el bit del día 31 es el más alto que se usa)
+    private YearMonth mes;
+
+    @BeforeEach
+    void setUp() {
+        Usuario anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+        propiedad = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Casa con calendario", 50.0);
+
+        mes = YearMonth.now().plusMonths(2);
+        while (mes.lengthOfMonth() != 31) {
+            mes = mes.plusMonths(1);
+        }
+    }
+
+    @Test
+    void unaEstadiaQueCruzaDeMesOcupaElUltimoDiaYElPrimero() {
+        // Noches del 31 y del 1 del mes siguiente
+        reservar(mes.atDay(31), mes.plusMonths(1).atDay(2));
+
+        assertThat(indiceDisponibilidad.nochesOcupadasDelMes(propiedad.getId(), mes)).isEqualTo(1 << 30);
+        assertThat(indiceDisponibilidad.nochesOcupadasDelMes(propiedad.getId(), mes.plusMonths(1))).isEqualTo(1);
+
+        // Ventana de 6 noches (29, 30, 31, 1, 2, 3): ocupadas la 3ra y la 4ta
+        DisponibilidadDTO disponibilidad = consultar();
+        assertThat(Base64.getDecoder().decode(disponibilidad.getOcupadas())).containsExactly(0b0000_1100);
+        assertThat(disponibilidad.getRangos())
+                .containsExactly(new DisponibilidadDTO.Rango(mes.atDay(31), mes.plusMonths(1).atDay(2)));
+    }
+
+    @Test
+    void reservarYCancelarDescartanLosMesesCacheados() {
+        assertThat(consultar().getRangos()).isEmpty();
+
+        // El mes ya está en la caché: reservar tiene que descartarlo
+        Reserva reserva = reservar(mes.atDay(29), mes.atDay(30));
+        assertThat(consultar().getRangos()).containsExactly(new DisponibilidadDTO.Rango(mes.atDay(29), mes.atDay(30)));
+        assertThat(Base64.getDecoder().decode(consultar().getOcupadas())).containsExactly(0b0000_0001);
+
+        // Y cancelar también
+        reservaService.cancelarMiReserva(reserva.getId(), huesped.getEmail());
+        assertThat(consultar().getRangos()).isEmpty();
+        assertThat(Base64.getDecoder().decode(consultar().getOcupadas())).containsExactly(0);
+    }
+
+    @Test
+    void elMesEnCursoSeArmaDesdeLaBaseDeDatos() {
+        // El mes actual empieza antes de la carga del calendario: sus bits salen de una consulta
+        LocalDate manana = LocalDate.now().plusDays(1);
+        reservar(manana, manana.plusDays(1));
+
+        DisponibilidadDTO disponibilidad = propiedadService.obtenerDisponibilidad(
+                propiedad.getId(), manana.minusDays(1), manana.plusDays(2));
+        assertThat(disponibilidad.getRangos()).containsExactly(new DisponibilidadDTO.Rango(manana, manana.plusDays(1)));
+    }
+
+    @Test
+    void unOcupadoDelIndiceSeConfirmaContraLaBaseDeDatos() {
+        // Otra instancia canceló: la fila ya no está, pero este índice todavía la tiene
+        Reserva cancelada = reservar(mes.atDay(10), mes.atDay(12));
+        reservaRepository.deleteById(cancelada.getId());
+        assertThat(indiceDisponibilidad.haySuperposicion(propiedad.getId(), mes.atDay(10), mes.atDay(12))).isTrue();
+
+        // Las fechas están libres en la BD: se reservan, y el índice se vuelve a cargar
+        Reserva nueva = reservar(mes.atDay(10), mes.atDay(12));
+        assertThat(nueva.getId()).isNotNull();
+        assertThatThrownBy(() -> reservar(mes.atDay(11), mes.atDay(13))).isInstanceOf(IllegalStateException.class);
+        assertThat(indiceDisponibilidad.haySuperposicion(propiedad.getId(), mes.atDay(12), mes.atDay(14))).isFalse();
+    }
+
+    // --- Ayudantes ---
+
+    private DisponibilidadDTO consultar() {
+        return propiedadService.obtenerDisponibilidad(propiedad.getId(), mes.atDay(29), mes.plusMonths(1).atDay(4));
+    }
+
+    private Reserva reservar(LocalDate inicio, LocalDate fin) {
+        return reservaService.crearReserva(DatosDePrueba.reserva(propiedad.getId(), inicio, fin), huesped.getEmail());
+    }
+}
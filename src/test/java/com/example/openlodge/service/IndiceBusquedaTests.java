@@ -0,0 +1,94 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.PropiedadDTO;
+import com.example.openlodge.dto.SugerenciaPropiedadDTO;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * El índice de búsqueda se carga solo al arrancar y sigue a las altas, cambios y
+ * bajas de propiedades; busca por prefijo sin importar mayúsculas ni tildes.
+ */
+@SpringBootTest
+class IndiceBusquedaTests {
+
+    @Autowired
+    private IndiceBusqueda indiceBusqueda;
+
+    @Autowired
+    private PropiedadService propiedadService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private Usuario anfitrion;
+    // Una palabra que sólo tienen las propiedades de este test
+    private String lugar;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        lugar = "paraje" + UUID.randomUUID().toString().replace("-", "");
+
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!indiceBusqueda.estaListo()) {
+            assertThat(System.currentTimeMillis()).as("tiempo de carga del índice").isLessThan(limite);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void lasSugerenciasSiguenALasPropiedades() {
+        PropiedadDTO cabana = propiedadService.crearPropiedad(
+                propiedad("Cabaña del Bosque", "Cerca del lago", "Ruta 40, " + lugar), anfitrion.getEmail());
+        PropiedadDTO casa = propiedadService.crearPropiedad(
+                propiedad("Casa grande", "Con cabañas vecinas", "Ruta 40, " + lugar), anfitrion.getEmail());
+        String prefijo = lugar.substring(0, 15);
+
+        // Todas las palabras tienen que estar; pesa más el título que la descripción
+        assertThat(propiedadService.sugerirPropiedades("CABAN " + prefijo, 10)).extracting(SugerenciaPropiedadDTO::getId)
+                .containsExactly(cabana.getId(), casa.getId());
+        assertThat(propiedadService.sugerirPropiedades("CABAN " + prefijo, 1)).extracting(SugerenciaPropiedadDTO::getId)
+                .containsExactly(cabana.getId());
+        assertThat(propiedadService.sugerirPropiedades("lago " + prefijo, 10)).extracting(SugerenciaPropiedadDTO::getId)
+                .containsExactly(cabana.getId());
+        assertThat(propiedadService.sugerirPropiedades("playa " + prefijo, 10)).isEmpty();
+
+        // Al cambiar el título, la búsqueda usa el nuevo
+        propiedadService.actualizarPropiedad(cabana.getId(),
+                propiedad("Departamento céntrico", "Cerca del lago", "Ruta 40, " + lugar), anfitrion.getEmail());
+        assertThat(propiedadService.sugerirPropiedades("depto " + prefijo, 10)).isEmpty();
+        assertThat(propiedadService.sugerirPropiedades("centri depa " + prefijo, 10)).extracting(SugerenciaPropiedadDTO::getId)
+                .containsExactly(cabana.getId());
+
+        // Borrada, desaparece; y volver a cargar desde la BD da lo mismo
+        propiedadService.borrarPropiedad(casa.getId(), anfitrion.getEmail());
+        assertThat(propiedadService.sugerirPropiedades("cab " + prefijo, 10)).isEmpty();
+        indiceBusqueda.cargar();
+        assertThat(propiedadService.sugerirPropiedades(prefijo, 10)).extracting(SugerenciaPropiedadDTO::getTitulo)
+                .containsExactly("Departamento céntrico");
+
+        assertThatThrownBy(() -> propiedadService.sugerirPropiedades("x".repeat(101), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // --- Ayudantes ---
+
+    private Propiedad propiedad(String titulo, String descripcion, String direccion) {
+        Propiedad propiedad = DatosDePrueba.nuevaPropiedad(null, titulo, 100.0);
+        propiedad.setDescripcion(descripcion);
+        propiedad.setDireccion(direccion);
+        return propiedad;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.CandidatoCotizacion;
+import com.example.openlodge.dto.CotizacionDTO;
+import com.example.openlodge.dto.CotizacionDTO.Estado;
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Servicio;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.ServicioRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * El precio lo calcula el servidor: noches x precio por noche + servicios elegidos.
+ */
+@SpringBootTest
+class MotorPreciosTests {
+
+    private static final LocalDate INICIO = LocalDate.now().plusDays(60);
+
+    @Autowired
+    private MotorPrecios motorPrecios;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private PropiedadService propiedadService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    private Usuario anfitrion;
+    private Propiedad propiedad;
+    private Servicio ofrecido;
+    private Servicio noOfrecido;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        ofrecido = servicioRepository.save(new Servicio(null, "Limpieza " + UUID.randomUUID(), 15.5, null));
+        noOfrecido = servicioRepository.save(new Servicio(null, "Cochera " + UUID.randomUUID(), 20.0, null));
+
+        Propiedad nueva = DatosDePrueba.nuevaPropiedad(anfitrion, "Depto con tarifa", 80.1);
+        nueva.getServicios().add(ofrecido);
+        propiedad = propiedadRepository.save(nueva);
+    }
+
+    @Test
+    void cotizaVariosCandidatosYMarcaLosInvalidos() {
+        List<CotizacionDTO> cotizaciones = motorPrecios.cotizarVarios(List.of(
+                candidato(propiedad.getId(), INICIO, INICIO.plusDays(3), ofrecido.getId(), ofrecido.getId()),
+                candidato(propiedad.getId(), INICIO, INICIO.plusDays(1)),
+                candidato(propiedad.getId(), INICIO, INICIO.plusDays(2), noOfrecido.getId()),
+                candidato(propiedad.getId(), INICIO, INICIO),
+                candidato(-1L, INICIO, INICIO.plusDays(2))));
+
+        // 3 x 80.10 + 15.50 (el servicio repetido se cobra una vez), sin errores de redondeo
+        CotizacionDTO conServicio = cotizaciones.get(0);
+        assertThat(conServicio.getEstado()).isEqualTo(Estado.COTIZADA);
+        assertThat(conServicio.getNoches()).isEqualTo(3);
+        assertThat(conServicio.getPrecioNoches()).isEqualTo(240.3);
+        assertThat(conServicio.getPrecioServicios()).isEqualTo(15.5);
+        assertThat(conServicio.getPrecioTotal()).isEqualTo(255.8);
+
+        assertThat(cotizaciones.get(1).getPrecioTotal()).isEqualTo(80.1);
+        assertThat(cotizaciones.get(2).getEstado()).isEqualTo(Estado.INVALIDA);
+        assertThat(cotizaciones.get(3).getEstado()).isEqualTo(Estado.INVALIDA);
+        assertThat(cotizaciones.get(4).getEstado()).isEqualTo(Estado.NO_ENCONTRADA);
+        assertThat(cotizaciones).extracting(CotizacionDTO::getIndice).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void laReservaGuardaElPrecioCalculadoYNoElDelCliente() {
+        Usuario huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+        ReservaRequest request = DatosDePrueba.reserva(propiedad.getId(), INICIO, INICIO.plusDays(2));
+        request.setPrecioTotal(1.0);
+        request.setServicioIds(List.of(ofrecido.getId()));
+
+        Reserva reserva = reservaService.crearReserva(request, huesped.getEmail());
+
+        assertThat(reserva.getPrecioTotal()).isEqualTo(175.7);
+    }
+
+    @Test
+    void cambiarElPrecioDescartaLaTablaDeTarifas() {
+        assertThat(motorPrecios.cotizar(propiedad.getId(), INICIO, INICIO.plusDays(1), List.of()).precioTotal())
+                .isEqualTo(80.1);
+
+        Propiedad datosNuevos = DatosDePrueba.nuevaPropiedad(null, propiedad.getTitulo(), 99.0);
+        propiedadService.actualizarPropiedad(propiedad.getId(), datosNuevos, anfitrion.getEmail());
+
+        assertThat(motorPrecios.cotizar(propiedad.getId(), INICIO, INICIO.plusDays(1), List.of()).precioTotal())
+                .isEqualTo(99.0);
+    }
+
+    @Test
+    void unaCargaQueLeyoElPrecioViejoNoLoDejaEnMemoria() throws Exception {
+        // Un motor propio cuyo repositorio se detiene justo después de leer los precios
+        CountDownLatch leyo = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        PropiedadRepository lento = (PropiedadRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PropiedadRepository.class }, (proxy, metodo, argumentos) -> {
+                    Object resultado = metodo.invoke(propiedadRepository, argumentos);
+                    if (metodo.getName().equals("findPreciosDePropiedades") && leyo.getCount() > 0) {
+                        leyo.countDown();
+                        seguir.await();
+                    }
+                    return resultado;
+                });
+        MotorPrecios motor = new MotorPrecios(lento, 1000, Duration.ofHours(1), 500);
+
+        // La carga lee 80.10; mientras tanto el anfitrión cambia el precio y se descarta la tabla
+        CompletableFuture<Map<Long, MotorPrecios.TarifaPropiedad>> carga =
+                CompletableFuture.supplyAsync(() -> motor.tarifas(List.of(propiedad.getId())));
+        leyo.await();
+        propiedadService.actualizarPropiedad(propiedad.getId(),
+                DatosDePrueba.nuevaPropiedad(null, propiedad.getTitulo(), 99.0), anfitrion.getEmail());
+        motor.invalidarPropiedad(propiedad.getId());
+        seguir.countDown();
+        carga.get();
+
+        // Lo que leyó antes del cambio no quedó guardado
+        assertThat(motor.cotizar(propiedad.getId(), INICIO, INICIO.plusDays(1), List.of()).precioTotal())
+                .isEqualTo(99.0);
+    }
+
+    // --- Ayudantes ---
+
+    private static CandidatoCotizacion candidato(Long propiedadId, LocalDate inicio, LocalDate fin, Long... servicioIds) {
+        CandidatoCotizacion candidato = new CandidatoCotizacion();
+        candidato.setPropiedadId(propiedadId);
+        candidato.setFechaInicio(inicio);
+        candidato.setFechaFin(fin);
+        candidato.setServicioIds(List.of(servicioIds));
+        return candidato;
+    }
+}
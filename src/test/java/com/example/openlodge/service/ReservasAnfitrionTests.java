@@ -0,0 +1,114 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.openlodge.dto.OcupacionPropiedadDTO;
+import com.example.openlodge.dto.ReservaDeAnfitrionDTO;
+import com.example.openlodge.dto.ReservaRequest;
+import com.example.openlodge.dto.ResumenAnfitrionDTO;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * Consultas del anfitrión: reservas paginadas por ventana de fechas y el tablero
+ * de ocupación, calculados con proyecciones (sin cargar reservas).
+ */
+@SpringBootTest
+class ReservasAnfitrionTests {
+
+    private static final LocalDate INICIO = LocalDate.now().plusDays(2);
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    private Usuario anfitrion;
+    private Propiedad conReservas;
+    private Propiedad sinReservas;
+    private Reserva primera;
+    private Reserva segunda;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        Usuario huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+        conReservas = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Con reservas", 100.0);
+        sinReservas = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Sin reservas", 50.0);
+
+        // 3 noches (300) y 2 noches (200)
+        primera = reservaService.crearReserva(reserva(INICIO, INICIO.plusDays(3)), huesped.getEmail());
+        segunda = reservaService.crearReserva(reserva(INICIO.plusDays(8), INICIO.plusDays(10)), huesped.getEmail());
+    }
+
+    @Test
+    void elResumenCuentaSoloLasNochesDentroDeLaVentana() {
+        // Ventana de 8 días: 2 noches de la primera reserva y 1 de la segunda
+        ResumenAnfitrionDTO resumen = reservaService.obtenerResumenDeMisPropiedades(
+                anfitrion.getEmail(), INICIO.plusDays(1), INICIO.plusDays(9));
+
+        assertThat(resumen.getPropiedades()).extracting(OcupacionPropiedadDTO::getPropiedadId)
+                .containsExactly(conReservas.getId(), sinReservas.getId());
+
+        OcupacionPropiedadDTO ocupada = resumen.getPropiedades().get(0);
+        assertThat(ocupada.getReservas()).isEqualTo(2);
+        assertThat(ocupada.getNochesOcupadas()).isEqualTo(3);
+        assertThat(ocupada.getTasaOcupacion()).isEqualTo(0.375);
+        assertThat(ocupada.getIngresos()).isEqualTo(300.0);
+        // Sólo la primera empieza en los próximos 7 días
+        assertThat(ocupada.getCheckInsProximos()).isEqualTo(1);
+        assertThat(ocupada.getProximoCheckIn()).isEqualTo(INICIO);
+
+        OcupacionPropiedadDTO vacia = resumen.getPropiedades().get(1);
+        assertThat(vacia.getNochesOcupadas()).isZero();
+        assertThat(vacia.getIngresos()).isZero();
+
+        assertThat(resumen.getNochesOcupadas()).isEqualTo(3);
+        assertThat(resumen.getTasaOcupacion()).isEqualTo(3.0 / 16);
+    }
+
+    @Test
+    void lasReservasSePaginanPorCursorDentroDeLaVentana() {
+        LocalDate desde = INICIO;
+        LocalDate hasta = INICIO.plusDays(30);
+
+        List<ReservaDeAnfitrionDTO> pagina = reservaService.obtenerReservasDeMisPropiedades(
+                anfitrion.getEmail(), desde, hasta, null, 1);
+        assertThat(pagina).extracting(ReservaDeAnfitrionDTO::getId).containsExactly(primera.getId());
+        assertThat(pagina.get(0).getPropiedadTitulo()).isEqualTo(conReservas.getTitulo());
+
+        List<ReservaDeAnfitrionDTO> siguiente = reservaService.obtenerReservasDeMisPropiedades(
+                anfitrion.getEmail(), desde, hasta, primera.getId(), 1);
+        assertThat(siguiente).extracting(ReservaDeAnfitrionDTO::getId).containsExactly(segunda.getId());
+
+        // Entre el checkout de una y el check-in de la otra no hay nada
+        assertThat(reservaService.obtenerReservasDeMisPropiedades(
+                anfitrion.getEmail(), INICIO.plusDays(3), INICIO.plusDays(8), null, 20)).isEmpty();
+
+        assertThatThrownBy(() -> reservaService.obtenerReservasDeMisPropiedades(
+                anfitrion.getEmail(), hasta, desde, null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // --- Ayudantes ---
+
+    private ReservaRequest reserva(LocalDate inicio, LocalDate fin) {
+        return DatosDePrueba.reserva(conReservas.getId(), inicio, fin);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.openlodge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.openlodge.config.MantenimientoOcupacion;
+import com.example.openlodge.dto.OcupacionMensualDTO;
+import com.example.openlodge.model.Propiedad;
+import com.example.openlodge.model.Reserva;
+import com.example.openlodge.model.Usuario;
+import com.example.openlodge.repository.PropiedadRepository;
+import com.example.openlodge.repository.UsuarioRepository;
+
+/**
+ * El resumen de ocupación se mantiene solo al crear y cancelar reservas, y se puede
+ * verificar y reconstruir desde la tabla de reservas.
+ */
+@SpringBootTest
+class ResumenOcupacionTests {
+
+    private static final YearMonth MES = YearMonth.now().plusMonths(2);
+
+    @Autowired
+    private ResumenOcupacion resumenOcupacion;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private MantenimientoOcupacion mantenimientoOcupacion;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PropiedadRepository propiedadRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Usuario anfitrion;
+    private Usuario huesped;
+    private Propiedad propiedad;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = DatosDePrueba.crearUsuario(usuarioRepository, "ANFITRION");
+        huesped = DatosDePrueba.crearUsuario(usuarioRepository, "HUESPED");
+
+        propiedad = DatosDePrueba.crearPropiedad(propiedadRepository, anfitrion, "Loft", 100.0);
+    }
+
+    @Test
+    void losContadoresSiguenALasReservasYSePuedenReconstruir() {
+        // 3 noches que cruzan de mes (2 en MES, 1 en el siguiente) y otra que se cancela
+        reservar(MES.atEndOfMonth().minusDays(1), MES.atEndOfMonth().plusDays(2));
+        Reserva cancelada = reservar(MES.atDay(5), MES.atDay(7));
+        reservaService.cancelarMiReserva(cancelada.getId(), huesped.getEmail());
+
+        List<OcupacionMensualDTO> reporte = reservaService.obtenerReporteMensual(anfitrion.getEmail(), MES, MES.plusMonths(1));
+        assertThat(reporte)
+                .extracting(OcupacionMensualDTO::getMes, OcupacionMensualDTO::getNochesVendidas,
+                        OcupacionMensualDTO::getLlegadas, OcupacionMensualDTO::getIngresos)
+                .containsExactly(tuple(MES, 2L, 1L, 200.0), tuple(MES.plusMonths(1), 1L, 0L, 100.0));
+        // Los días de la cancelada no quedan como filas en cero
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ocupacion_diaria WHERE propiedad_id = ?",
+                Integer.class, propiedad.getId())).isEqualTo(3);
+
+        // Si alguien toca la tabla a mano, el verificador lo encuentra y la reconstrucción lo arregla
+        assertThat(resumenOcupacion.verificar()).doesNotContain(propiedad.getId());
+        jdbcTemplate.update("UPDATE ocupacion_diaria SET noches = 5 WHERE propiedad_id = ?", propiedad.getId());
+        assertThat(resumenOcupacion.verificar()).contains(propiedad.getId());
+
+        resumenOcupacion.reconstruir();
+        assertThat(resumenOcupacion.verificar()).isEmpty();
+        assertThat(reservaService.obtenerReporteMensual(anfitrion.getEmail(), MES, MES.plusMonths(1))).isEqualTo(reporte);
+    }
+
+    @Test
+    void siLaTablaEstaVaciaSeLlenaAlArrancar() throws Exception {
+        reservar(MES.atDay(10), MES.atDay(12));
+        List<OcupacionMensualDTO> reporte = reservaService.obtenerReporteMensual(anfitrion.getEmail(), MES, MES);
+
+        // Como una base que viene de antes de V5: reservas, pero la tabla vacía
+        jdbcTemplate.update("DELETE FROM ocupacion_diaria");
+        assertThat(resumenOcupacion.faltaCargar()).isTrue();
+
+        mantenimientoOcupacion.run(new DefaultApplicationArguments());
+        assertThat(resumenOcupacion.faltaCargar()).isFalse();
+        assertThat(resumenOcupacion.verificar()).isEmpty();
+        assertThat(reservaService.obtenerReporteMensual(anfitrion.getEmail(), MES, MES)).isEqualTo(reporte);
+    }
+
+    @Test
+    void elAliasDeLaFilaNuevaSoloSeUsaDondeExiste() {
+        assertThat(ResumenOcupacion.sentenciaSumar("MySQL", "8.0.36")).isEqualTo(ResumenOcupacion.SUMAR_CON_ALIAS);
+        assertThat(ResumenOcupacion.sentenciaSumar("MySQL", "8.4.0")).isEqualTo(ResumenOcupacion.SUMAR_CON_ALIAS);
+        assertThat(ResumenOcupacion.sentenciaSumar("MySQL", "8.0.18")).isEqualTo(ResumenOcupacion.SUMAR_CON_VALUES);
+        assertThat(ResumenOcupacion.sentenciaSumar("MySQL", "5.5.5-10.4.32-MariaDB")).isEqualTo(ResumenOcupacion.SUMAR_CON_VALUES);
+        assertThat(ResumenOcupacion.sentenciaSumar("H2", "2.3.232 (2024-08-11)")).isEqualTo(ResumenOcupacion.SUMAR_CON_VALUES);
+    }
+
+    // --- Ayudantes ---
+
+    private Reserva reservar(LocalDate inicio, LocalDate fin) {
+        return reservaService.crearReserva(DatosDePrueba.reserva(propiedad.getId(), inicio, fin), huesped.getEmail());
+    }
+}